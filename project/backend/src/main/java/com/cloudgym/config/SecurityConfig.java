@@ -43,7 +43,11 @@ public class SecurityConfig {
                 .requestMatchers("/gyms/nearby").permitAll()
                 .requestMatchers("/gyms/search").permitAll()
                 .requestMatchers("/gyms/{id}").permitAll()
+                .requestMatchers("/gyms/{id}/stream").permitAll()
                 .requestMatchers("/gyms").hasRole("ADMIN")
+                .requestMatchers("/gyms/{id}/timetable/rules/**", "/gyms/{id}/timetable/exceptions/**").hasRole("ADMIN")
+                .requestMatchers("/gyms/{id}/roster/**").hasRole("ADMIN")
+                .requestMatchers("/payments/callback/stats", "/payments/callback/{id}/retry", "/payments/gateway/stats", "/payments/cleanup/stats", "/payments/reconciliation/**").hasRole("ADMIN")
                 .requestMatchers("/bookings/**").hasAnyRole("USER", "ADMIN")
                 .requestMatchers("/users/**").hasAnyRole("USER", "ADMIN")
                 .requestMatchers("/ai/**").hasAnyRole("USER", "ADMIN")
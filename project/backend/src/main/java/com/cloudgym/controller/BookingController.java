@@ -1,41 +1,142 @@
 package com.cloudgym.controller;
 
+import com.cloudgym.dto.CursorPageDTO;
 import com.cloudgym.dto.BookingDTO;
+import com.cloudgym.dto.RecurringBookingResultDTO;
+import com.cloudgym.dto.ScanEventDTO;
+import com.cloudgym.dto.ScanEventResultDTO;
+import com.cloudgym.dto.ScanResultDTO;
 import com.cloudgym.dto.TimeSlotDTO;
+import com.cloudgym.dto.WaitlistEntryDTO;
 import com.cloudgym.service.BookingService;
+import com.cloudgym.service.CheckInService;
+import com.cloudgym.service.GymEventStreamService;
+import com.cloudgym.service.IdempotencyService;
+import com.cloudgym.service.OccupancyService;
+import com.cloudgym.service.PaymentService;
+import com.cloudgym.service.RecurringBookingService;
+import com.cloudgym.service.ScanIngestionService;
+import com.cloudgym.service.WaitlistService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/bookings")
-@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"}, exposedHeaders = CursorPageDTO.NEXT_CURSOR_HEADER)
 public class BookingController {
 
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private RecurringBookingService recurringBookingService;
+
+    @Autowired
+    private CheckInService checkInService;
+
+    @Autowired
+    private ScanIngestionService scanIngestionService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private PaymentService paymentService;
+
     @GetMapping("/my-bookings")
-    public ResponseEntity<List<BookingDTO>> getUserBookings(@RequestHeader("Authorization") String token) {
-        Long userId = extractUserIdFromToken(token);
-        List<BookingDTO> bookings = bookingService.getUserBookings(userId);
-        return ResponseEntity.ok(bookings);
+    public ResponseEntity<List<BookingDTO>> getUserBookings(@RequestHeader("Authorization") String token,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer limit) {
+        try {
+            Long userId = extractUserIdFromToken(token);
+            CursorPageDTO<BookingDTO> page = bookingService.getUserBookings(userId, cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(CursorPageDTO.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping
     public ResponseEntity<BookingDTO> createBooking(@RequestHeader("Authorization") String token,
+                                                   @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
                                                    @RequestBody Map<String, Object> request) {
+        try {
+            Long userId = extractUserIdFromToken(token);
+            return idempotencyService.execute(userId, "POST /bookings", idempotencyKey, request,
+                    new TypeReference<BookingDTO>() {}, () -> {
+                Long gymId = Long.valueOf(request.get("gymId").toString());
+                Long slotId = Long.valueOf(request.get("slotId").toString());
+                LocalDate date = LocalDate.parse(request.get("date").toString());
+                boolean hold = Boolean.parseBoolean(String.valueOf(request.getOrDefault("hold", "false")));
+
+                BookingDTO booking = hold
+                        ? bookingService.holdBooking(userId, gymId, slotId, date)
+                        : bookingService.createBooking(userId, gymId, slotId, date);
+                return ResponseEntity.ok(booking);
+            });
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Holds the slot and initiates its payment in one request and one transaction,
+     * returning the payment redirect together with the held booking.
+     */
+    @PostMapping("/checkout")
+    public ResponseEntity<Map<String, Object>> checkout(@RequestHeader("Authorization") String token,
+                                                        @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                        @RequestBody Map<String, Object> request) {
+        try {
+            Long userId = extractUserIdFromToken(token);
+            return idempotencyService.execute(userId, "POST /bookings/checkout", idempotencyKey, request,
+                    new TypeReference<Map<String, Object>>() {}, () -> {
+                Long gymId = Long.valueOf(request.get("gymId").toString());
+                Long slotId = Long.valueOf(request.get("slotId").toString());
+                LocalDate date = LocalDate.parse(request.get("date").toString());
+
+                return ResponseEntity.ok(paymentService.checkout(userId, gymId, slotId, date));
+            });
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/recurring")
+    public ResponseEntity<RecurringBookingResultDTO> createRecurringBookings(@RequestHeader("Authorization") String token,
+                                                                             @RequestBody Map<String, Object> request) {
         try {
             Long userId = extractUserIdFromToken(token);
             Long gymId = Long.valueOf(request.get("gymId").toString());
             Long slotId = Long.valueOf(request.get("slotId").toString());
-            LocalDate date = LocalDate.parse(request.get("date").toString());
-            
-            BookingDTO booking = bookingService.createBooking(userId, gymId, slotId, date);
-            return ResponseEntity.ok(booking);
+            LocalDate startDate = LocalDate.parse(request.get("startDate").toString());
+            int weeks = Integer.parseInt(request.get("weeks").toString());
+
+            Set<DayOfWeek> daysOfWeek = EnumSet.noneOf(DayOfWeek.class);
+            for (Object day : (List<?>) request.get("daysOfWeek")) {
+                daysOfWeek.add(DayOfWeek.valueOf(day.toString().toUpperCase()));
+            }
+
+            RecurringBookingResultDTO result = recurringBookingService
+                    .createRecurringBookings(userId, gymId, slotId, daysOfWeek, startDate, weeks);
+            return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -69,6 +170,26 @@ public class BookingController {
         }
     }
 
+    @PostMapping("/scan")
+    public ResponseEntity<ScanResultDTO> scan(@RequestBody Map<String, Object> request) {
+        try {
+            String qrCode = request.get("qrCode").toString();
+            Long gymId = request.get("gymId") != null ? Long.valueOf(request.get("gymId").toString()) : null;
+            return ResponseEntity.ok(checkInService.scan(qrCode, gymId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/scans")
+    public ResponseEntity<List<ScanEventResultDTO>> ingestScans(@RequestBody List<ScanEventDTO> events) {
+        try {
+            return ResponseEntity.ok(scanIngestionService.ingest(events));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping("/{id}/check-out")
     public ResponseEntity<BookingDTO> checkOut(@PathVariable Long id) {
         try {
@@ -79,6 +200,39 @@ public class BookingController {
         }
     }
 
+    @PostMapping("/waitlist")
+    public ResponseEntity<WaitlistEntryDTO> joinWaitlist(@RequestHeader("Authorization") String token,
+                                                         @RequestBody Map<String, Object> request) {
+        try {
+            Long userId = extractUserIdFromToken(token);
+            Long gymId = Long.valueOf(request.get("gymId").toString());
+            Long slotId = Long.valueOf(request.get("slotId").toString());
+            LocalDate date = LocalDate.parse(request.get("date").toString());
+
+            WaitlistEntryDTO entry = waitlistService.joinWaitlist(userId, gymId, slotId, date);
+            return ResponseEntity.ok(entry);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/waitlist/my-entries")
+    public ResponseEntity<List<WaitlistEntryDTO>> getUserWaitlist(@RequestHeader("Authorization") String token) {
+        Long userId = extractUserIdFromToken(token);
+        return ResponseEntity.ok(waitlistService.getUserWaitlist(userId));
+    }
+
+    @DeleteMapping("/waitlist/{id}")
+    public ResponseEntity<Void> leaveWaitlist(@RequestHeader("Authorization") String token, @PathVariable Long id) {
+        try {
+            Long userId = extractUserIdFromToken(token);
+            waitlistService.leaveWaitlist(id, userId);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     private Long extractUserIdFromToken(String token) {
         if (token != null && token.startsWith("Bearer mock-jwt-token-")) {
             String userIdStr = token.substring("Bearer mock-jwt-token-".length());
@@ -96,6 +250,17 @@ class TimeSlotController {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private GymEventStreamService gymEventStreamService;
+
+    @Autowired
+    private OccupancyService occupancyService;
+
+    @GetMapping(value = "/{gymId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamGymEvents(@PathVariable Long gymId) {
+        return gymEventStreamService.subscribe(gymId, occupancyService.getOccupancy(gymId));
+    }
+
     @GetMapping("/{gymId}/slots")
     public ResponseEntity<List<TimeSlotDTO>> getAvailableSlots(
             @PathVariable Long gymId,
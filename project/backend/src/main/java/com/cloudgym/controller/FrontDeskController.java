@@ -0,0 +1,46 @@
+package com.cloudgym.controller;
+
+import com.cloudgym.dto.RosterEntryDTO;
+import com.cloudgym.dto.ScanResultDTO;
+import com.cloudgym.service.FrontDeskRosterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/gyms/{gymId}/roster")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
+public class FrontDeskController {
+
+    private static final Logger logger = LoggerFactory.getLogger(FrontDeskController.class);
+
+    @Autowired
+    private FrontDeskRosterService frontDeskRosterService;
+
+    @GetMapping
+    public ResponseEntity<List<RosterEntryDTO>> getRoster(@PathVariable Long gymId,
+                                                          @RequestParam(required = false) String date) {
+        try {
+            LocalDate day = date != null ? LocalDate.parse(date) : LocalDate.now();
+            return ResponseEntity.ok(frontDeskRosterService.getRoster(gymId, day));
+        } catch (Exception e) {
+            logger.error("Error loading roster for gym {}: {}", gymId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/check-in")
+    public ResponseEntity<ScanResultDTO> checkIn(@PathVariable Long gymId, @RequestBody Map<String, Object> request) {
+        try {
+            String qrCode = request.get("qrCode").toString();
+            return ResponseEntity.ok(frontDeskRosterService.checkIn(gymId, qrCode));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
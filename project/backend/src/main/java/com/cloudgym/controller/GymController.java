@@ -1,13 +1,23 @@
 package com.cloudgym.controller;
 
 import com.cloudgym.dto.GymDTO;
+import com.cloudgym.dto.OccupancyHistoryDTO;
+import com.cloudgym.dto.OccupancyProfileDTO;
+import com.cloudgym.dto.SlotForecastDTO;
+import com.cloudgym.service.CrowdForecastService;
+import com.cloudgym.service.FloorCapacityService;
 import com.cloudgym.service.GymService;
+import com.cloudgym.service.OccupancyHistoryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/gyms")
@@ -19,6 +29,15 @@ public class GymController {
     @Autowired
     private GymService gymService;
 
+    @Autowired
+    private OccupancyHistoryService occupancyHistoryService;
+
+    @Autowired
+    private CrowdForecastService crowdForecastService;
+
+    @Autowired
+    private FloorCapacityService floorCapacityService;
+
     @GetMapping("/nearby")
     public ResponseEntity<List<GymDTO>> getNearbyGyms(
             @RequestParam Double lat,
@@ -94,6 +113,93 @@ public class GymController {
         }
     }
 
+    @GetMapping("/{id}/occupancy/history")
+    public ResponseEntity<OccupancyHistoryDTO> getOccupancyHistory(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "60") Integer minutes) {
+        logger.info("Getting occupancy history for gym {} over {} minutes", id, minutes);
+        if (minutes <= 0 || minutes > 1440) {
+            logger.error("Invalid history window: {} (must be between 1 and 1440)", minutes);
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(occupancyHistoryService.getHistory(id, minutes));
+    }
+
+    @GetMapping("/{id}/occupancy/profile")
+    public ResponseEntity<List<OccupancyProfileDTO>> getOccupancyProfile(
+            @PathVariable Long id,
+            @RequestParam(required = false) DayOfWeek day,
+            @RequestParam(required = false) Integer hour) {
+        logger.info("Getting occupancy profile for gym {} (day={}, hour={})", id, day, hour);
+        if (hour != null && (hour < 0 || hour > 23)) {
+            logger.error("Invalid hour: {} (must be between 0 and 23)", hour);
+            return ResponseEntity.badRequest().build();
+        }
+        if (day != null && hour != null) {
+            return ResponseEntity.ok(List.of(occupancyHistoryService.getProfile(id, day, hour)));
+        }
+        List<OccupancyProfileDTO> profile = occupancyHistoryService.getProfile(id).stream()
+                .filter(entry -> day == null || entry.getDayOfWeek() == day)
+                .filter(entry -> hour == null || entry.getHour().equals(hour))
+                .toList();
+        return ResponseEntity.ok(profile);
+    }
+
+    @GetMapping("/{id}/forecast")
+    public ResponseEntity<List<SlotForecastDTO>> getCrowdForecast(@PathVariable Long id) {
+        logger.info("Getting crowd forecast for gym {}", id);
+        return ResponseEntity.ok(crowdForecastService.getForecast(id));
+    }
+
+    @GetMapping("/{id}/forecast/least-crowded")
+    public ResponseEntity<List<SlotForecastDTO>> getLeastCrowdedSlots(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "5") Integer limit) {
+        logger.info("Getting {} least crowded slots for gym {}", limit, id);
+        if (limit <= 0 || limit > 50) {
+            logger.error("Invalid limit: {} (must be between 1 and 50)", limit);
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(crowdForecastService.getLeastCrowded(id, limit));
+    }
+
+    @GetMapping("/{id}/capacity/fit")
+    public ResponseEntity<Map<String, Object>> checkCapacityFit(
+            @PathVariable Long id,
+            @RequestParam String date,
+            @RequestParam String start,
+            @RequestParam(defaultValue = "60") Integer minutes) {
+        logger.info("Checking floor capacity for gym {} on {} at {} for {} minutes", id, date, start, minutes);
+        if (minutes <= 0 || minutes > 1440) {
+            logger.error("Invalid session length: {} (must be between 1 and 1440)", minutes);
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(floorCapacityService.checkFit(id, LocalDate.parse(date), LocalTime.parse(start), minutes));
+        } catch (Exception e) {
+            logger.error("Error checking floor capacity for gym {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/least-crowded")
+    public ResponseEntity<List<SlotForecastDTO>> getLeastCrowdedSlotsNearby(
+            @RequestParam Double lat,
+            @RequestParam Double lng,
+            @RequestParam(defaultValue = "10") Double radius,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        logger.info("Getting {} least crowded slots near lat={}, lng={}, radius={}km", limit, lat, lng, radius);
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            logger.error("Invalid coordinates: lat={}, lng={}", lat, lng);
+            return ResponseEntity.badRequest().build();
+        }
+        if (radius <= 0 || radius > 100 || limit <= 0 || limit > 50) {
+            logger.error("Invalid radius {} or limit {}", radius, limit);
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(crowdForecastService.getLeastCrowdedNear(lat, lng, radius, limit));
+    }
+
     @GetMapping("/search")
     public ResponseEntity<List<GymDTO>> searchGyms(@RequestParam String q) {
         logger.info("Searching gyms with query: '{}'", q);
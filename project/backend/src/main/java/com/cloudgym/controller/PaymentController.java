@@ -1,8 +1,15 @@
 package com.cloudgym.controller;
 
+import com.cloudgym.dto.CursorPageDTO;
 import com.cloudgym.dto.PaymentDTO;
+import com.cloudgym.dto.ReconciliationReportDTO;
 import com.cloudgym.entity.Subscription;
+import com.cloudgym.service.IdempotencyService;
+import com.cloudgym.service.PaymentCallbackQueueService;
+import com.cloudgym.service.PaymentGatewayService;
 import com.cloudgym.service.PaymentService;
+import com.cloudgym.service.SettlementReconciliationService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -11,18 +18,38 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/payments")
-@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"}, exposedHeaders = CursorPageDTO.NEXT_CURSOR_HEADER)
 public class PaymentController {
 
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private PaymentCallbackQueueService paymentCallbackQueueService;
+
+    @Autowired
+    private PaymentGatewayService paymentGatewayService;
+
+    @Autowired
+    private SettlementReconciliationService settlementReconciliationService;
+
     @GetMapping("/my-payments")
-    public ResponseEntity<List<PaymentDTO>> getUserPayments(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<List<PaymentDTO>> getUserPayments(@RequestHeader("Authorization") String token,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer limit) {
         try {
             Long userId = extractUserIdFromToken(token);
-            List<PaymentDTO> payments = paymentService.getUserPayments(userId);
-            return ResponseEntity.ok(payments);
+            CursorPageDTO<PaymentDTO> page = paymentService.getUserPayments(userId, cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(CursorPageDTO.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -31,14 +58,18 @@ public class PaymentController {
     @PostMapping("/subscription/initiate")
     public ResponseEntity<Map<String, Object>> initiateSubscriptionPayment(
             @RequestHeader("Authorization") String token,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @RequestBody Map<String, String> request) {
         try {
             Long userId = extractUserIdFromToken(token);
-            String typeStr = request.get("type");
-            Subscription.SubscriptionType type = Subscription.SubscriptionType.valueOf(typeStr);
-            
-            Map<String, Object> paymentResponse = paymentService.initiateSubscriptionPayment(userId, type);
-            return ResponseEntity.ok(paymentResponse);
+            return idempotencyService.execute(userId, "POST /payments/subscription/initiate", idempotencyKey, request,
+                    new TypeReference<Map<String, Object>>() {}, () -> {
+                String typeStr = request.get("type");
+                Subscription.SubscriptionType type = Subscription.SubscriptionType.valueOf(typeStr);
+
+                Map<String, Object> paymentResponse = paymentService.initiateSubscriptionPayment(userId, type);
+                return ResponseEntity.ok(paymentResponse);
+            });
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -47,24 +78,68 @@ public class PaymentController {
     @PostMapping("/booking/initiate")
     public ResponseEntity<Map<String, Object>> initiateBookingPayment(
             @RequestHeader("Authorization") String token,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @RequestBody Map<String, Object> request) {
         try {
             Long userId = extractUserIdFromToken(token);
-            Long bookingId = Long.valueOf(request.get("bookingId").toString());
-            
-            Map<String, Object> paymentResponse = paymentService.initiateBookingPayment(userId, bookingId);
-            return ResponseEntity.ok(paymentResponse);
+            return idempotencyService.execute(userId, "POST /payments/booking/initiate", idempotencyKey, request,
+                    new TypeReference<Map<String, Object>>() {}, () -> {
+                Long bookingId = Long.valueOf(request.get("bookingId").toString());
+
+                Map<String, Object> paymentResponse = paymentService.initiateBookingPayment(userId, bookingId);
+                return ResponseEntity.ok(paymentResponse);
+            });
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * Acknowledges a gateway callback once it is durably queued; the payment is
+     * updated asynchronously by {@link PaymentCallbackQueueService}.
+     */
     @PostMapping("/callback")
-    public ResponseEntity<PaymentDTO> processPaymentCallback(@RequestBody Map<String, Object> callbackData) {
+    public ResponseEntity<Void> processPaymentCallback(@RequestBody Map<String, Object> callbackData) {
         try {
             String paymentId = (String) callbackData.get("paymentId");
-            PaymentDTO payment = paymentService.processPaymentCallback(paymentId, callbackData);
-            return ResponseEntity.ok(payment);
+            paymentCallbackQueueService.enqueue(paymentId, callbackData);
+            return ResponseEntity.accepted().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/callback/stats")
+    public ResponseEntity<Map<String, Object>> getCallbackQueueStats() {
+        try {
+            return ResponseEntity.ok(paymentCallbackQueueService.getStats());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @PostMapping("/callback/{id}/retry")
+    public ResponseEntity<Void> retryDeadCallback(@PathVariable Long id) {
+        if (!paymentCallbackQueueService.retryDead(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/cleanup/stats")
+    public ResponseEntity<Map<String, Object>> getCleanupStats() {
+        return ResponseEntity.ok(paymentService.getCleanupStats());
+    }
+
+    @GetMapping("/gateway/stats")
+    public ResponseEntity<Map<String, Object>> getGatewayStats() {
+        return ResponseEntity.ok(paymentGatewayService.getStats());
+    }
+
+    @PostMapping("/reconciliation/run")
+    public ResponseEntity<List<ReconciliationReportDTO>> runReconciliation() {
+        try {
+            return ResponseEntity.ok(settlementReconciliationService.reconcilePending());
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
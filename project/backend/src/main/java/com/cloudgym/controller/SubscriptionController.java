@@ -1,5 +1,6 @@
 package com.cloudgym.controller;
 
+import com.cloudgym.dto.CursorPageDTO;
 import com.cloudgym.dto.SubscriptionDTO;
 import com.cloudgym.entity.Subscription;
 import com.cloudgym.service.SubscriptionService;
@@ -13,7 +14,7 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/subscriptions")
-@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"}, exposedHeaders = CursorPageDTO.NEXT_CURSOR_HEADER)
 public class SubscriptionController {
 
     @Autowired
@@ -40,11 +41,19 @@ public class SubscriptionController {
     }
 
     @GetMapping("/my-subscriptions")
-    public ResponseEntity<List<SubscriptionDTO>> getUserSubscriptions(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<List<SubscriptionDTO>> getUserSubscriptions(@RequestHeader("Authorization") String token,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(required = false) Integer limit) {
         try {
             Long userId = extractUserIdFromToken(token);
-            List<SubscriptionDTO> subscriptions = subscriptionService.getUserSubscriptions(userId);
-            return ResponseEntity.ok(subscriptions);
+            CursorPageDTO<SubscriptionDTO> page = subscriptionService.getUserSubscriptions(userId, cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(CursorPageDTO.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -0,0 +1,119 @@
+package com.cloudgym.controller;
+
+import com.cloudgym.dto.TimeSlotDTO;
+import com.cloudgym.dto.TimetableExceptionDTO;
+import com.cloudgym.dto.TimetableRuleDTO;
+import com.cloudgym.service.TimetableService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/gyms/{gymId}/timetable")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
+public class TimetableController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimetableController.class);
+
+    @Autowired
+    private TimetableService timetableService;
+
+    @GetMapping
+    public ResponseEntity<List<TimeSlotDTO>> getTimetable(@PathVariable Long gymId,
+                                                          @RequestParam String from,
+                                                          @RequestParam String to) {
+        try {
+            List<TimeSlotDTO> slots = timetableService.expand(gymId, LocalDate.parse(from), LocalDate.parse(to)).stream()
+                    .map(instance -> {
+                        TimeSlotDTO dto = new TimeSlotDTO();
+                        dto.setId(instance.timeSlotId());
+                        dto.setGymId(gymId);
+                        dto.setDate(instance.date());
+                        dto.setStartTime(instance.startTime().toString());
+                        dto.setEndTime(instance.endTime().toString());
+                        dto.setTotalSpots(instance.capacity());
+                        dto.setPrice(instance.price());
+                        return dto;
+                    })
+                    .toList();
+            return ResponseEntity.ok(slots);
+        } catch (Exception e) {
+            logger.error("Error expanding timetable for gym {}: {}", gymId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/rules")
+    public ResponseEntity<List<TimetableRuleDTO>> getRules(@PathVariable Long gymId) {
+        return ResponseEntity.ok(timetableService.getRules(gymId));
+    }
+
+    @PostMapping("/rules")
+    public ResponseEntity<TimetableRuleDTO> createRule(@PathVariable Long gymId,
+                                                       @RequestBody Map<String, Object> request) {
+        try {
+            Set<DayOfWeek> daysOfWeek = EnumSet.noneOf(DayOfWeek.class);
+            for (Object day : (List<?>) request.get("daysOfWeek")) {
+                daysOfWeek.add(DayOfWeek.valueOf(day.toString().toUpperCase()));
+            }
+            LocalTime startTime = LocalTime.parse(request.get("startTime").toString());
+            LocalTime endTime = LocalTime.parse(request.get("endTime").toString());
+            Integer totalSpots = Integer.valueOf(request.get("totalSpots").toString());
+            Double price = Double.valueOf(request.get("price").toString());
+            LocalDate validFrom = request.get("validFrom") != null ? LocalDate.parse(request.get("validFrom").toString()) : null;
+            LocalDate validUntil = request.get("validUntil") != null ? LocalDate.parse(request.get("validUntil").toString()) : null;
+
+            TimetableRuleDTO rule = timetableService.createRule(gymId, daysOfWeek, startTime, endTime,
+                    totalSpots, price, validFrom, validUntil);
+            logger.info("Created timetable rule {} for gym {}", rule.getId(), gymId);
+            return ResponseEntity.status(201).body(rule);
+        } catch (Exception e) {
+            logger.error("Error creating timetable rule for gym {}: {}", gymId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("/rules/{ruleId}")
+    public ResponseEntity<TimetableRuleDTO> deactivateRule(@PathVariable Long gymId, @PathVariable Long ruleId) {
+        try {
+            return ResponseEntity.ok(timetableService.deactivateRule(gymId, ruleId));
+        } catch (Exception e) {
+            logger.error("Error deactivating timetable rule {}: {}", ruleId, e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/exceptions")
+    public ResponseEntity<List<TimetableExceptionDTO>> getExceptions(@PathVariable Long gymId,
+                                                                     @RequestParam(required = false) String from) {
+        LocalDate fromDate = from != null ? LocalDate.parse(from) : LocalDate.now();
+        return ResponseEntity.ok(timetableService.getExceptions(gymId, fromDate));
+    }
+
+    @PostMapping("/exceptions")
+    public ResponseEntity<TimetableExceptionDTO> addException(@PathVariable Long gymId,
+                                                              @RequestBody Map<String, Object> request) {
+        try {
+            Long ruleId = request.get("ruleId") != null ? Long.valueOf(request.get("ruleId").toString()) : null;
+            LocalDate date = LocalDate.parse(request.get("date").toString());
+            Integer capacity = request.get("capacityOverride") != null
+                    ? Integer.valueOf(request.get("capacityOverride").toString()) : null;
+            String reason = request.get("reason") != null ? request.get("reason").toString() : null;
+
+            TimetableExceptionDTO exception = timetableService.addException(gymId, ruleId, date, capacity, reason);
+            return ResponseEntity.status(201).body(exception);
+        } catch (Exception e) {
+            logger.error("Error adding timetable exception for gym {}: {}", gymId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
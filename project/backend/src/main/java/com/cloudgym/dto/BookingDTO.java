@@ -1,11 +1,19 @@
 package com.cloudgym.dto;
 
+import com.cloudgym.entity.ArchivedBooking;
 import com.cloudgym.entity.Booking;
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Comparator;
 
 public class BookingDTO {
+    // History order: newest first, id breaking ties
+    public static final Comparator<BookingDTO> NEWEST_FIRST = Comparator
+            .comparing(BookingDTO::getCreatedAt)
+            .thenComparing(BookingDTO::getId)
+            .reversed();
+
     private Long id;
     private Long userId;
     private Long gymId;
@@ -19,6 +27,7 @@ public class BookingDTO {
     private String qrCode;
     private LocalDateTime checkInTime;
     private LocalDateTime checkOutTime;
+    private LocalDateTime holdExpiresAt;
     private Double price;
     private LocalDateTime createdAt;
 
@@ -36,10 +45,40 @@ public class BookingDTO {
         this.qrCode = booking.getQrCode();
         this.checkInTime = booking.getCheckInTime();
         this.checkOutTime = booking.getCheckOutTime();
+        this.holdExpiresAt = booking.getHoldExpiresAt();
         this.price = booking.getPrice();
         this.createdAt = booking.getCreatedAt();
     }
 
+    public BookingDTO(ArchivedBooking booking) {
+        this.id = booking.getId();
+        this.userId = booking.getUserId();
+        this.gymId = booking.getGym().getId();
+        this.gym = new GymDTO(booking.getGym());
+        this.timeSlot = new TimeSlotDTO(booking.getTimeSlot());
+        this.bookingDate = booking.getBookingDate();
+        this.status = booking.getStatus().name().toLowerCase();
+        this.qrCode = booking.getQrCode();
+        this.checkInTime = booking.getCheckInTime();
+        this.checkOutTime = booking.getCheckOutTime();
+        this.holdExpiresAt = booking.getHoldExpiresAt();
+        this.price = booking.getPrice();
+        this.createdAt = booking.getCreatedAt();
+    }
+
+    // Booking history entries carry a gym summary rather than the full gym
+    public static BookingDTO historyEntry(Booking booking) {
+        BookingDTO entry = new BookingDTO(booking);
+        entry.setGym(GymDTO.summaryOf(booking.getGym()));
+        return entry;
+    }
+
+    public static BookingDTO historyEntry(ArchivedBooking booking) {
+        BookingDTO entry = new BookingDTO(booking);
+        entry.setGym(GymDTO.summaryOf(booking.getGym()));
+        return entry;
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -71,6 +110,9 @@ public class BookingDTO {
     public LocalDateTime getCheckOutTime() { return checkOutTime; }
     public void setCheckOutTime(LocalDateTime checkOutTime) { this.checkOutTime = checkOutTime; }
 
+    public LocalDateTime getHoldExpiresAt() { return holdExpiresAt; }
+    public void setHoldExpiresAt(LocalDateTime holdExpiresAt) { this.holdExpiresAt = holdExpiresAt; }
+
     public Double getPrice() { return price; }
     public void setPrice(Double price) { this.price = price; }
 
@@ -0,0 +1,41 @@
+package com.cloudgym.dto;
+
+import com.cloudgym.util.KeysetCursor;
+import java.util.List;
+import java.util.function.Function;
+
+public class CursorPageDTO<T> {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private List<T> items;
+    private String nextCursor;
+
+    // Constructors
+    public CursorPageDTO() {}
+
+    public CursorPageDTO(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Builds a page from rows fetched with a limit of pageSize + 1; the extra row only
+     * signals that another page exists and is not returned.
+     */
+    public static <E, T> CursorPageDTO<T> of(List<E> rows, int pageSize,
+                                             Function<E, KeysetCursor> cursorOf,
+                                             Function<List<E>, List<T>> mapper) {
+        if (rows.size() <= pageSize) {
+            return new CursorPageDTO<>(mapper.apply(rows), null);
+        }
+        List<E> page = rows.subList(0, pageSize);
+        return new CursorPageDTO<>(mapper.apply(page), cursorOf.apply(page.get(pageSize - 1)).encode());
+    }
+
+    // Getters and Setters
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -49,6 +49,20 @@ public class GymDTO {
         this.contactInfo = new ContactInfo(gym.getContactPhone(), gym.getContactEmail());
     }
 
+    // Only the gym fields booking history shows, the same on every page of it
+    public static GymDTO summaryOf(Gym gym) {
+        GymDTO summary = new GymDTO();
+        summary.setId(gym.getId());
+        summary.setName(gym.getName());
+        summary.setAddress(gym.getAddress());
+        summary.setLatitude(gym.getLatitude());
+        summary.setLongitude(gym.getLongitude());
+        summary.setRating(gym.getRating());
+        List<String> images = gym.getImages();
+        summary.setImages(images == null || images.isEmpty() ? List.of() : List.of(images.get(0)));
+        return summary;
+    }
+
     // Constructor for mapping from native query result
     public GymDTO(Object[] result) {
         ObjectMapper mapper = new ObjectMapper();
@@ -0,0 +1,35 @@
+package com.cloudgym.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class OccupancyHistoryDTO {
+    private Long gymId;
+    private LocalDateTime from;
+    private Integer intervalMinutes;
+    // One entry per minute starting at from; null where no sample was taken
+    private List<Integer> samples;
+
+    // Constructors
+    public OccupancyHistoryDTO() {}
+
+    public OccupancyHistoryDTO(Long gymId, LocalDateTime from, Integer intervalMinutes, List<Integer> samples) {
+        this.gymId = gymId;
+        this.from = from;
+        this.intervalMinutes = intervalMinutes;
+        this.samples = samples;
+    }
+
+    // Getters and Setters
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public LocalDateTime getFrom() { return from; }
+    public void setFrom(LocalDateTime from) { this.from = from; }
+
+    public Integer getIntervalMinutes() { return intervalMinutes; }
+    public void setIntervalMinutes(Integer intervalMinutes) { this.intervalMinutes = intervalMinutes; }
+
+    public List<Integer> getSamples() { return samples; }
+    public void setSamples(List<Integer> samples) { this.samples = samples; }
+}
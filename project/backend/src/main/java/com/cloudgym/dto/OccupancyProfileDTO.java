@@ -0,0 +1,38 @@
+package com.cloudgym.dto;
+
+import java.time.DayOfWeek;
+
+public class OccupancyProfileDTO {
+    private Long gymId;
+    private DayOfWeek dayOfWeek;
+    private Integer hour;
+    private Double averageOccupancy;
+    private Integer samples;
+
+    // Constructors
+    public OccupancyProfileDTO() {}
+
+    public OccupancyProfileDTO(Long gymId, DayOfWeek dayOfWeek, Integer hour, Double averageOccupancy, Integer samples) {
+        this.gymId = gymId;
+        this.dayOfWeek = dayOfWeek;
+        this.hour = hour;
+        this.averageOccupancy = averageOccupancy;
+        this.samples = samples;
+    }
+
+    // Getters and Setters
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public DayOfWeek getDayOfWeek() { return dayOfWeek; }
+    public void setDayOfWeek(DayOfWeek dayOfWeek) { this.dayOfWeek = dayOfWeek; }
+
+    public Integer getHour() { return hour; }
+    public void setHour(Integer hour) { this.hour = hour; }
+
+    public Double getAverageOccupancy() { return averageOccupancy; }
+    public void setAverageOccupancy(Double averageOccupancy) { this.averageOccupancy = averageOccupancy; }
+
+    public Integer getSamples() { return samples; }
+    public void setSamples(Integer samples) { this.samples = samples; }
+}
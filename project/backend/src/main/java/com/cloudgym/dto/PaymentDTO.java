@@ -23,7 +23,7 @@ public class PaymentDTO {
     public PaymentDTO(Payment payment) {
         this.id = payment.getId();
         this.userId = payment.getUser().getId();
-        this.bookingId = payment.getBooking() != null ? payment.getBooking().getId() : null;
+        this.bookingId = payment.getBooking() != null ? payment.getBooking().getId() : payment.getArchivedBookingId();
         this.subscriptionId = payment.getSubscription() != null ? payment.getSubscription().getId() : null;
         this.paymentId = payment.getPaymentId();
         this.amount = payment.getAmount();
@@ -0,0 +1,57 @@
+package com.cloudgym.dto;
+
+public class ReconciliationReportDTO {
+    private String settlementFile;
+    private String reportFile;
+    private long records;
+    private long matched;
+    private long missingInLedger;
+    private long missingInSettlement;
+    private long duplicatesInSettlement;
+    private long amountMismatches;
+    private long statusMismatches;
+    private long malformed;
+    private long durationMs;
+
+    // Constructors
+    public ReconciliationReportDTO() {}
+
+    public ReconciliationReportDTO(String settlementFile, String reportFile) {
+        this.settlementFile = settlementFile;
+        this.reportFile = reportFile;
+    }
+
+    // Getters and Setters
+    public String getSettlementFile() { return settlementFile; }
+    public void setSettlementFile(String settlementFile) { this.settlementFile = settlementFile; }
+
+    public String getReportFile() { return reportFile; }
+    public void setReportFile(String reportFile) { this.reportFile = reportFile; }
+
+    public long getRecords() { return records; }
+    public void setRecords(long records) { this.records = records; }
+
+    public long getMatched() { return matched; }
+    public void setMatched(long matched) { this.matched = matched; }
+
+    public long getMissingInLedger() { return missingInLedger; }
+    public void setMissingInLedger(long missingInLedger) { this.missingInLedger = missingInLedger; }
+
+    public long getMissingInSettlement() { return missingInSettlement; }
+    public void setMissingInSettlement(long missingInSettlement) { this.missingInSettlement = missingInSettlement; }
+
+    public long getDuplicatesInSettlement() { return duplicatesInSettlement; }
+    public void setDuplicatesInSettlement(long duplicatesInSettlement) { this.duplicatesInSettlement = duplicatesInSettlement; }
+
+    public long getAmountMismatches() { return amountMismatches; }
+    public void setAmountMismatches(long amountMismatches) { this.amountMismatches = amountMismatches; }
+
+    public long getStatusMismatches() { return statusMismatches; }
+    public void setStatusMismatches(long statusMismatches) { this.statusMismatches = statusMismatches; }
+
+    public long getMalformed() { return malformed; }
+    public void setMalformed(long malformed) { this.malformed = malformed; }
+
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+}
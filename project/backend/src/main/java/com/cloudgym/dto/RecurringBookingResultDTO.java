@@ -0,0 +1,75 @@
+package com.cloudgym.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class RecurringBookingResultDTO {
+    private Long gymId;
+    private Long slotId;
+    private int requested;
+    private int booked;
+    private int failed;
+    private List<Occurrence> occurrences;
+
+    // Constructors
+    public RecurringBookingResultDTO() {}
+
+    public RecurringBookingResultDTO(Long gymId, Long slotId, List<Occurrence> occurrences) {
+        this.gymId = gymId;
+        this.slotId = slotId;
+        this.occurrences = occurrences;
+        this.requested = occurrences.size();
+        this.booked = (int) occurrences.stream().filter(Occurrence::isSuccess).count();
+        this.failed = requested - booked;
+    }
+
+    // Getters and Setters
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public Long getSlotId() { return slotId; }
+    public void setSlotId(Long slotId) { this.slotId = slotId; }
+
+    public int getRequested() { return requested; }
+    public void setRequested(int requested) { this.requested = requested; }
+
+    public int getBooked() { return booked; }
+    public void setBooked(int booked) { this.booked = booked; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public List<Occurrence> getOccurrences() { return occurrences; }
+    public void setOccurrences(List<Occurrence> occurrences) { this.occurrences = occurrences; }
+
+    public static class Occurrence {
+        private LocalDate date;
+        private boolean success;
+        private Long bookingId;
+        private String qrCode;
+        private String reason;
+
+        public Occurrence() {}
+
+        public Occurrence(LocalDate date, boolean success, String reason) {
+            this.date = date;
+            this.success = success;
+            this.reason = reason;
+        }
+
+        public LocalDate getDate() { return date; }
+        public void setDate(LocalDate date) { this.date = date; }
+
+        public boolean isSuccess() { return success; }
+        public void setSuccess(boolean success) { this.success = success; }
+
+        public Long getBookingId() { return bookingId; }
+        public void setBookingId(Long bookingId) { this.bookingId = bookingId; }
+
+        public String getQrCode() { return qrCode; }
+        public void setQrCode(String qrCode) { this.qrCode = qrCode; }
+
+        public String getReason() { return reason; }
+        public void setReason(String reason) { this.reason = reason; }
+    }
+}
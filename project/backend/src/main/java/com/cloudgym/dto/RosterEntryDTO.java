@@ -0,0 +1,70 @@
+package com.cloudgym.dto;
+
+import com.cloudgym.entity.Booking;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class RosterEntryDTO {
+    private Long bookingId;
+    private Long userId;
+    private String username;
+    private Long timeSlotId;
+    private String startTime;
+    private String endTime;
+    private LocalDate bookingDate;
+    private String status;
+    private String qrCode;
+    private boolean checkedIn;
+    private LocalDateTime checkInTime;
+
+    // Constructors
+    public RosterEntryDTO() {}
+
+    public RosterEntryDTO(Booking booking) {
+        this.bookingId = booking.getId();
+        this.userId = booking.getUser().getId();
+        this.username = booking.getUser().getUsername();
+        this.timeSlotId = booking.getTimeSlot().getId();
+        this.startTime = booking.getTimeSlot().getStartTime().toString();
+        this.endTime = booking.getTimeSlot().getEndTime().toString();
+        this.bookingDate = booking.getBookingDate();
+        this.status = booking.getStatus().name();
+        this.qrCode = booking.getQrCode();
+        this.checkInTime = booking.getCheckInTime();
+        this.checkedIn = booking.getCheckInTime() != null;
+    }
+
+    // Getters and Setters
+    public Long getBookingId() { return bookingId; }
+    public void setBookingId(Long bookingId) { this.bookingId = bookingId; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public Long getTimeSlotId() { return timeSlotId; }
+    public void setTimeSlotId(Long timeSlotId) { this.timeSlotId = timeSlotId; }
+
+    public String getStartTime() { return startTime; }
+    public void setStartTime(String startTime) { this.startTime = startTime; }
+
+    public String getEndTime() { return endTime; }
+    public void setEndTime(String endTime) { this.endTime = endTime; }
+
+    public LocalDate getBookingDate() { return bookingDate; }
+    public void setBookingDate(LocalDate bookingDate) { this.bookingDate = bookingDate; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getQrCode() { return qrCode; }
+    public void setQrCode(String qrCode) { this.qrCode = qrCode; }
+
+    public boolean isCheckedIn() { return checkedIn; }
+    public void setCheckedIn(boolean checkedIn) { this.checkedIn = checkedIn; }
+
+    public LocalDateTime getCheckInTime() { return checkInTime; }
+    public void setCheckInTime(LocalDateTime checkInTime) { this.checkInTime = checkInTime; }
+}
@@ -0,0 +1,38 @@
+package com.cloudgym.dto;
+
+import java.time.LocalDateTime;
+
+public class ScanEventDTO {
+    private String eventId;
+    private String deviceId;
+    private Long gymId;
+    private Long bookingId;
+    private String qrCode;
+    private String type;
+    private LocalDateTime deviceTimestamp;
+
+    // Constructors
+    public ScanEventDTO() {}
+
+    // Getters and Setters
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+
+    public String getDeviceId() { return deviceId; }
+    public void setDeviceId(String deviceId) { this.deviceId = deviceId; }
+
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public Long getBookingId() { return bookingId; }
+    public void setBookingId(Long bookingId) { this.bookingId = bookingId; }
+
+    public String getQrCode() { return qrCode; }
+    public void setQrCode(String qrCode) { this.qrCode = qrCode; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public LocalDateTime getDeviceTimestamp() { return deviceTimestamp; }
+    public void setDeviceTimestamp(LocalDateTime deviceTimestamp) { this.deviceTimestamp = deviceTimestamp; }
+}
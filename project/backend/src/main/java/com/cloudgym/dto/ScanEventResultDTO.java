@@ -0,0 +1,36 @@
+package com.cloudgym.dto;
+
+public class ScanEventResultDTO {
+    private String eventId;
+    private Long bookingId;
+    private String type;
+    private String status;
+    private String reason;
+
+    // Constructors
+    public ScanEventResultDTO() {}
+
+    public ScanEventResultDTO(String eventId, Long bookingId, String type, String status, String reason) {
+        this.eventId = eventId;
+        this.bookingId = bookingId;
+        this.type = type;
+        this.status = status;
+        this.reason = reason;
+    }
+
+    // Getters and Setters
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+
+    public Long getBookingId() { return bookingId; }
+    public void setBookingId(Long bookingId) { this.bookingId = bookingId; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+}
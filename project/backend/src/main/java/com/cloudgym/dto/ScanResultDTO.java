@@ -0,0 +1,42 @@
+package com.cloudgym.dto;
+
+import java.time.LocalDateTime;
+
+public class ScanResultDTO {
+    private Long bookingId;
+    private Long gymId;
+    private boolean accepted;
+    private String reason;
+    private LocalDateTime scannedAt;
+    private LocalDateTime validUntil;
+
+    // Constructors
+    public ScanResultDTO() {}
+
+    public ScanResultDTO(Long bookingId, Long gymId, boolean accepted, String reason, LocalDateTime scannedAt) {
+        this.bookingId = bookingId;
+        this.gymId = gymId;
+        this.accepted = accepted;
+        this.reason = reason;
+        this.scannedAt = scannedAt;
+    }
+
+    // Getters and Setters
+    public Long getBookingId() { return bookingId; }
+    public void setBookingId(Long bookingId) { this.bookingId = bookingId; }
+
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public boolean isAccepted() { return accepted; }
+    public void setAccepted(boolean accepted) { this.accepted = accepted; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public LocalDateTime getScannedAt() { return scannedAt; }
+    public void setScannedAt(LocalDateTime scannedAt) { this.scannedAt = scannedAt; }
+
+    public LocalDateTime getValidUntil() { return validUntil; }
+    public void setValidUntil(LocalDateTime validUntil) { this.validUntil = validUntil; }
+}
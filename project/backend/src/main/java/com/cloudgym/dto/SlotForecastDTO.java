@@ -0,0 +1,65 @@
+package com.cloudgym.dto;
+
+import com.cloudgym.entity.SlotForecast;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public class SlotForecastDTO {
+    private Long gymId;
+    private String gymName;
+    private Long timeSlotId;
+    private LocalDate date;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private Double predictedOccupancy;
+    private Integer bookedCount;
+    private Integer capacity;
+    private Double crowdRatio;
+
+    // Constructors
+    public SlotForecastDTO() {}
+
+    public SlotForecastDTO(SlotForecast forecast) {
+        this.gymId = forecast.getGym().getId();
+        this.gymName = forecast.getGym().getName();
+        this.timeSlotId = forecast.getTimeSlot().getId();
+        this.date = forecast.getForecastDate();
+        this.startTime = forecast.getStartTime();
+        this.endTime = forecast.getEndTime();
+        this.predictedOccupancy = forecast.getPredictedOccupancy();
+        this.bookedCount = forecast.getBookedCount();
+        this.capacity = forecast.getCapacity();
+        this.crowdRatio = forecast.getCrowdRatio();
+    }
+
+    // Getters and Setters
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public String getGymName() { return gymName; }
+    public void setGymName(String gymName) { this.gymName = gymName; }
+
+    public Long getTimeSlotId() { return timeSlotId; }
+    public void setTimeSlotId(Long timeSlotId) { this.timeSlotId = timeSlotId; }
+
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+
+    public LocalTime getStartTime() { return startTime; }
+    public void setStartTime(LocalTime startTime) { this.startTime = startTime; }
+
+    public LocalTime getEndTime() { return endTime; }
+    public void setEndTime(LocalTime endTime) { this.endTime = endTime; }
+
+    public Double getPredictedOccupancy() { return predictedOccupancy; }
+    public void setPredictedOccupancy(Double predictedOccupancy) { this.predictedOccupancy = predictedOccupancy; }
+
+    public Integer getBookedCount() { return bookedCount; }
+    public void setBookedCount(Integer bookedCount) { this.bookedCount = bookedCount; }
+
+    public Integer getCapacity() { return capacity; }
+    public void setCapacity(Integer capacity) { this.capacity = capacity; }
+
+    public Double getCrowdRatio() { return crowdRatio; }
+    public void setCrowdRatio(Double crowdRatio) { this.crowdRatio = crowdRatio; }
+}
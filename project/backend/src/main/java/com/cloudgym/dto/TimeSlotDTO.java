@@ -1,6 +1,7 @@
 package com.cloudgym.dto;
 
 import com.cloudgym.entity.TimeSlot;
+import java.time.LocalDate;
 import java.time.LocalTime;
 
 public class TimeSlotDTO {
@@ -11,6 +12,8 @@ public class TimeSlotDTO {
     private Integer availableSpots;
     private Integer totalSpots;
     private Double price;
+    // Set for slots expanded from a timetable rule, which only exist on some dates
+    private LocalDate date;
 
     // Constructors
     public TimeSlotDTO() {}
@@ -46,4 +49,7 @@ public class TimeSlotDTO {
 
     public Double getPrice() { return price; }
     public void setPrice(Double price) { this.price = price; }
-}
\ No newline at end of file
+
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+}
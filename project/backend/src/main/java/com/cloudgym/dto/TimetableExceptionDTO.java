@@ -0,0 +1,44 @@
+package com.cloudgym.dto;
+
+import com.cloudgym.entity.TimetableException;
+import java.time.LocalDate;
+
+public class TimetableExceptionDTO {
+    private Long id;
+    private Long gymId;
+    private Long ruleId;
+    private LocalDate date;
+    private Integer capacityOverride;
+    private String reason;
+
+    // Constructors
+    public TimetableExceptionDTO() {}
+
+    public TimetableExceptionDTO(TimetableException exception) {
+        this.id = exception.getId();
+        this.gymId = exception.getGym().getId();
+        this.ruleId = exception.getRule() != null ? exception.getRule().getId() : null;
+        this.date = exception.getExceptionDate();
+        this.capacityOverride = exception.getCapacityOverride();
+        this.reason = exception.getReason();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public Long getRuleId() { return ruleId; }
+    public void setRuleId(Long ruleId) { this.ruleId = ruleId; }
+
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+
+    public Integer getCapacityOverride() { return capacityOverride; }
+    public void setCapacityOverride(Integer capacityOverride) { this.capacityOverride = capacityOverride; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+}
@@ -0,0 +1,71 @@
+package com.cloudgym.dto;
+
+import com.cloudgym.entity.TimetableRule;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Set;
+
+public class TimetableRuleDTO {
+    private Long id;
+    private Long gymId;
+    private Long timeSlotId;
+    private Set<DayOfWeek> daysOfWeek;
+    private String startTime;
+    private String endTime;
+    private Integer totalSpots;
+    private Double price;
+    private LocalDate validFrom;
+    private LocalDate validUntil;
+    private Boolean active;
+
+    // Constructors
+    public TimetableRuleDTO() {}
+
+    public TimetableRuleDTO(TimetableRule rule) {
+        this.id = rule.getId();
+        this.gymId = rule.getGym().getId();
+        this.timeSlotId = rule.getTimeSlot().getId();
+        this.daysOfWeek = rule.getDaysOfWeek();
+        this.startTime = rule.getStartTime().toString();
+        this.endTime = rule.getEndTime().toString();
+        this.totalSpots = rule.getTotalSpots();
+        this.price = rule.getPrice();
+        this.validFrom = rule.getValidFrom();
+        this.validUntil = rule.getValidUntil();
+        this.active = rule.getActive();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public Long getTimeSlotId() { return timeSlotId; }
+    public void setTimeSlotId(Long timeSlotId) { this.timeSlotId = timeSlotId; }
+
+    public Set<DayOfWeek> getDaysOfWeek() { return daysOfWeek; }
+    public void setDaysOfWeek(Set<DayOfWeek> daysOfWeek) { this.daysOfWeek = daysOfWeek; }
+
+    public String getStartTime() { return startTime; }
+    public void setStartTime(String startTime) { this.startTime = startTime; }
+
+    public String getEndTime() { return endTime; }
+    public void setEndTime(String endTime) { this.endTime = endTime; }
+
+    public Integer getTotalSpots() { return totalSpots; }
+    public void setTotalSpots(Integer totalSpots) { this.totalSpots = totalSpots; }
+
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+
+    public LocalDate getValidFrom() { return validFrom; }
+    public void setValidFrom(LocalDate validFrom) { this.validFrom = validFrom; }
+
+    public LocalDate getValidUntil() { return validUntil; }
+    public void setValidUntil(LocalDate validUntil) { this.validUntil = validUntil; }
+
+    public Boolean getActive() { return active; }
+    public void setActive(Boolean active) { this.active = active; }
+}
@@ -0,0 +1,59 @@
+package com.cloudgym.dto;
+
+import com.cloudgym.entity.WaitlistEntry;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class WaitlistEntryDTO {
+    private Long id;
+    private Long userId;
+    private Long gymId;
+    private Long slotId;
+    private LocalDate bookingDate;
+    private String status;
+    private Integer position;
+    private Long bookingId;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public WaitlistEntryDTO() {}
+
+    public WaitlistEntryDTO(WaitlistEntry entry) {
+        this.id = entry.getId();
+        this.userId = entry.getUser().getId();
+        this.gymId = entry.getGym().getId();
+        this.slotId = entry.getTimeSlot().getId();
+        this.bookingDate = entry.getBookingDate();
+        this.status = entry.getStatus().name().toLowerCase();
+        this.bookingId = entry.getBooking() != null ? entry.getBooking().getId() : entry.getArchivedBookingId();
+        this.createdAt = entry.getCreatedAt();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public Long getSlotId() { return slotId; }
+    public void setSlotId(Long slotId) { this.slotId = slotId; }
+
+    public LocalDate getBookingDate() { return bookingDate; }
+    public void setBookingDate(LocalDate bookingDate) { this.bookingDate = bookingDate; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Integer getPosition() { return position; }
+    public void setPosition(Integer position) { this.position = position; }
+
+    public Long getBookingId() { return bookingId; }
+    public void setBookingId(Long bookingId) { this.bookingId = bookingId; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
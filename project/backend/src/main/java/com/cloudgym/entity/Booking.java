@@ -7,7 +7,13 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+    @Index(name = "idx_bookings_status_hold_expiry", columnList = "status, hold_expires_at"),
+    @Index(name = "idx_bookings_check_in_time", columnList = "check_in_time"),
+    @Index(name = "idx_bookings_user_created", columnList = "user_id, created_at"),
+    @Index(name = "idx_bookings_user_date", columnList = "user_id, booking_date"),
+    @Index(name = "idx_bookings_date_status", columnList = "booking_date, status")
+})
 public class Booking {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -37,6 +43,9 @@ public class Booking {
 
     private LocalDateTime checkOutTime;
 
+    // Set while the booking is HELD waiting for payment
+    private LocalDateTime holdExpiresAt;
+
     private Double price;
 
     @Column(name = "created_at")
@@ -84,6 +93,9 @@ public class Booking {
     public LocalDateTime getCheckOutTime() { return checkOutTime; }
     public void setCheckOutTime(LocalDateTime checkOutTime) { this.checkOutTime = checkOutTime; }
 
+    public LocalDateTime getHoldExpiresAt() { return holdExpiresAt; }
+    public void setHoldExpiresAt(LocalDateTime holdExpiresAt) { this.holdExpiresAt = holdExpiresAt; }
+
     public Double getPrice() { return price; }
     public void setPrice(Double price) { this.price = price; }
 
@@ -99,6 +111,6 @@ public class Booking {
     }
 
     public enum BookingStatus {
-        CONFIRMED, CANCELLED, COMPLETED, NO_SHOW
+        HELD, CONFIRMED, CANCELLED, COMPLETED, NO_SHOW, EXPIRED
     }
 }
\ No newline at end of file
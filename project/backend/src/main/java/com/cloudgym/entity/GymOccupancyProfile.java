@@ -0,0 +1,42 @@
+package com.cloudgym.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "gym_occupancy_profiles")
+public class GymOccupancyProfile {
+    @Id
+    @Column(name = "gym_id")
+    private Long gymId;
+
+    // 168 hour-of-week buckets encoded by HourOfWeekProfile
+    @Column(nullable = false, length = 1008)
+    private byte[] profile;
+
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public GymOccupancyProfile() {}
+
+    public GymOccupancyProfile(Long gymId, byte[] profile) {
+        this.gymId = gymId;
+        this.profile = profile;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public byte[] getProfile() { return profile; }
+    public void setProfile(byte[] profile) { this.profile = profile; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,41 @@
+package com.cloudgym.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "job_checkpoints")
+public class JobCheckpoint {
+    @Id
+    @Column(name = "job_name", length = 64)
+    private String jobName;
+
+    // Last booking date the job has fully processed
+    private LocalDate processedThrough;
+
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // Constructors
+    public JobCheckpoint() {}
+
+    public JobCheckpoint(String jobName, LocalDate processedThrough) {
+        this.jobName = jobName;
+        this.processedThrough = processedThrough;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getJobName() { return jobName; }
+    public void setJobName(String jobName) { this.jobName = jobName; }
+
+    public LocalDate getProcessedThrough() { return processedThrough; }
+    public void setProcessedThrough(LocalDate processedThrough) { this.processedThrough = processedThrough; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
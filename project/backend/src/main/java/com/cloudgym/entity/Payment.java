@@ -6,7 +6,12 @@ import java.time.LocalDateTime;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+    @Index(name = "idx_payments_user_created", columnList = "user_id, created_at"),
+    @Index(name = "idx_payments_status_created", columnList = "status, created_at"),
+    @Index(name = "idx_payments_payment_id", columnList = "payment_id"),
+    @Index(name = "idx_payments_transaction_id", columnList = "transaction_id")
+})
 public class Payment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,6 +25,10 @@ public class Payment {
     @JoinColumn(name = "booking_id")
     private Booking booking;
 
+    // Takes the place of booking once the booking has moved to bookings_archive
+    @Column(name = "archived_booking_id")
+    private Long archivedBookingId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "subscription_id")
     private Subscription subscription;
@@ -67,6 +76,9 @@ public class Payment {
     public Booking getBooking() { return booking; }
     public void setBooking(Booking booking) { this.booking = booking; }
 
+    public Long getArchivedBookingId() { return archivedBookingId; }
+    public void setArchivedBookingId(Long archivedBookingId) { this.archivedBookingId = archivedBookingId; }
+
     public Subscription getSubscription() { return subscription; }
     public void setSubscription(Subscription subscription) { this.subscription = subscription; }
 
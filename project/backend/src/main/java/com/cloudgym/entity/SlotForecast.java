@@ -0,0 +1,82 @@
+package com.cloudgym.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Entity
+@Table(name = "slot_forecasts",
+    uniqueConstraints = @UniqueConstraint(name = "uk_slot_forecasts_slot_date", columnNames = {"time_slot_id", "forecast_date"}),
+    indexes = {
+        @Index(name = "idx_slot_forecasts_gym_date_ratio", columnList = "gym_id, forecast_date, crowd_ratio"),
+        @Index(name = "idx_slot_forecasts_date_ratio", columnList = "forecast_date, crowd_ratio")
+    })
+public class SlotForecast {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "gym_id", nullable = false)
+    private Gym gym;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "time_slot_id", nullable = false)
+    private TimeSlot timeSlot;
+
+    @Column(name = "forecast_date", nullable = false)
+    private LocalDate forecastDate;
+
+    private LocalTime startTime;
+
+    private LocalTime endTime;
+
+    private Double predictedOccupancy;
+
+    private Integer bookedCount;
+
+    private Integer capacity;
+
+    @Column(name = "crowd_ratio")
+    private Double crowdRatio;
+
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public SlotForecast() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Gym getGym() { return gym; }
+    public void setGym(Gym gym) { this.gym = gym; }
+
+    public TimeSlot getTimeSlot() { return timeSlot; }
+    public void setTimeSlot(TimeSlot timeSlot) { this.timeSlot = timeSlot; }
+
+    public LocalDate getForecastDate() { return forecastDate; }
+    public void setForecastDate(LocalDate forecastDate) { this.forecastDate = forecastDate; }
+
+    public LocalTime getStartTime() { return startTime; }
+    public void setStartTime(LocalTime startTime) { this.startTime = startTime; }
+
+    public LocalTime getEndTime() { return endTime; }
+    public void setEndTime(LocalTime endTime) { this.endTime = endTime; }
+
+    public Double getPredictedOccupancy() { return predictedOccupancy; }
+    public void setPredictedOccupancy(Double predictedOccupancy) { this.predictedOccupancy = predictedOccupancy; }
+
+    public Integer getBookedCount() { return bookedCount; }
+    public void setBookedCount(Integer bookedCount) { this.bookedCount = bookedCount; }
+
+    public Integer getCapacity() { return capacity; }
+    public void setCapacity(Integer capacity) { this.capacity = capacity; }
+
+    public Double getCrowdRatio() { return crowdRatio; }
+    public void setCrowdRatio(Double crowdRatio) { this.crowdRatio = crowdRatio; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -6,7 +6,9 @@ import java.time.LocalDateTime;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "subscriptions")
+@Table(name = "subscriptions", indexes = {
+    @Index(name = "idx_subscriptions_user_created", columnList = "user_id, created_at")
+})
 public class Subscription {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,65 @@
+package com.cloudgym.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A one-day change to a gym's timetable. Without a rule it applies to every rule of
+ * the gym (a holiday); a rule-specific exception wins over a gym-wide one. A null
+ * capacity means the slot is not offered that day.
+ */
+@Entity
+@Table(name = "timetable_exceptions", indexes = {
+    @Index(name = "idx_timetable_exceptions_gym_date", columnList = "gym_id, exception_date")
+})
+public class TimetableException {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "gym_id", nullable = false)
+    private Gym gym;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "rule_id")
+    private TimetableRule rule;
+
+    @NotNull
+    @Column(name = "exception_date")
+    private LocalDate exceptionDate;
+
+    private Integer capacityOverride;
+
+    private String reason;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Constructors
+    public TimetableException() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Gym getGym() { return gym; }
+    public void setGym(Gym gym) { this.gym = gym; }
+
+    public TimetableRule getRule() { return rule; }
+    public void setRule(TimetableRule rule) { this.rule = rule; }
+
+    public LocalDate getExceptionDate() { return exceptionDate; }
+    public void setExceptionDate(LocalDate exceptionDate) { this.exceptionDate = exceptionDate; }
+
+    public Integer getCapacityOverride() { return capacityOverride; }
+    public void setCapacityOverride(Integer capacityOverride) { this.capacityOverride = capacityOverride; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,49 @@
+package com.cloudgym.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "user_booking_views")
+public class UserBookingView {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // JSON list of the user's latest bookings, gym and slot details denormalized in
+    @Lob
+    @Column(nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String document;
+
+    // Whether the user has older bookings than the ones in the document
+    private Boolean hasMore = false;
+
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // Constructors
+    public UserBookingView() {}
+
+    public UserBookingView(Long userId, String document, Boolean hasMore) {
+        this.userId = userId;
+        this.document = document;
+        this.hasMore = hasMore;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getDocument() { return document; }
+    public void setDocument(String document) { this.document = document; }
+
+    public Boolean getHasMore() { return hasMore; }
+    public void setHasMore(Boolean hasMore) { this.hasMore = hasMore; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,29 @@
+package com.cloudgym.repository;
+
+import com.cloudgym.entity.ArchivedBooking;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    @Query("SELECT MAX(b.createdAt) FROM ArchivedBooking b")
+    LocalDateTime findNewestCreatedAt();
+
+    @Query("SELECT b FROM ArchivedBooking b JOIN FETCH b.gym JOIN FETCH b.timeSlot WHERE b.userId = :userId " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<ArchivedBooking> findHistoryByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT b FROM ArchivedBooking b JOIN FETCH b.gym JOIN FETCH b.timeSlot WHERE b.userId = :userId " +
+           "AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<ArchivedBooking> findHistoryByUserIdBefore(@Param("userId") Long userId,
+                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("id") Long id,
+                                                    Pageable pageable);
+}
@@ -2,24 +2,86 @@ package com.cloudgym.repository;
 
 import com.cloudgym.entity.Booking;
 import com.cloudgym.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     
     List<Booking> findByUserOrderByCreatedAtDesc(User user);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.gym JOIN FETCH b.timeSlot WHERE b.user.id = :userId " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Booking> findHistoryByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.gym JOIN FETCH b.timeSlot WHERE b.user.id = :userId " +
+           "AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Booking> findHistoryByUserIdBefore(@Param("userId") Long userId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
     
     @Query("SELECT b FROM Booking b WHERE b.user.id = :userId AND b.status = 'CONFIRMED'")
     List<Booking> findActiveBookingsByUserId(@Param("userId") Long userId);
     
-    @Query("SELECT b FROM Booking b WHERE b.gym.id = :gymId AND b.bookingDate = :date")
+    @Query("SELECT b FROM Booking b JOIN FETCH b.user JOIN FETCH b.timeSlot WHERE b.gym.id = :gymId AND b.bookingDate = :date")
     List<Booking> findByGymIdAndDate(@Param("gymId") Long gymId, @Param("date") LocalDate date);
+
+    // Served by idx_bookings_user_date; only used when the user's day is not in the overlap index
+    @Query("SELECT b.id, t.startTime, t.endTime FROM Booking b JOIN b.timeSlot t " +
+           "WHERE b.user.id = :userId AND b.bookingDate = :date AND b.status NOT IN ('CANCELLED', 'EXPIRED')")
+    List<Object[]> findActiveIntervals(@Param("userId") Long userId, @Param("date") LocalDate date);
+
+    @Query("SELECT b.id, t.startTime, t.endTime FROM Booking b JOIN b.timeSlot t " +
+           "WHERE b.gym.id = :gymId AND b.bookingDate = :date AND b.status NOT IN ('CANCELLED', 'EXPIRED')")
+    List<Object[]> findActiveIntervalsByGymId(@Param("gymId") Long gymId, @Param("date") LocalDate date);
     
-    @Query("SELECT COUNT(b) FROM Booking b WHERE b.timeSlot.id = :timeSlotId AND b.bookingDate = :date AND b.status = 'CONFIRMED'")
-    Long countConfirmedBookingsByTimeSlotAndDate(@Param("timeSlotId") Long timeSlotId, @Param("date") LocalDate date);
+    @Query("SELECT COUNT(b) FROM Booking b WHERE b.timeSlot.id = :timeSlotId AND b.bookingDate = :date AND b.status IN ('CONFIRMED', 'HELD')")
+    Long countReservedBookingsByTimeSlotAndDate(@Param("timeSlotId") Long timeSlotId, @Param("date") LocalDate date);
+
+    /**
+     * Reserved spots per date for one slot, plus how many of them belong to the given
+     * user, as rows of [bookingDate, reservedCount, userCount].
+     */
+    @Query("SELECT b.bookingDate, COUNT(b), SUM(CASE WHEN b.user.id = :userId THEN 1 ELSE 0 END) " +
+           "FROM Booking b WHERE b.timeSlot.id = :timeSlotId AND b.bookingDate IN :dates " +
+           "AND b.status IN ('CONFIRMED', 'HELD') GROUP BY b.bookingDate")
+    List<Object[]> countReservedBookingsByDate(@Param("timeSlotId") Long timeSlotId,
+                                               @Param("userId") Long userId,
+                                               @Param("dates") Collection<LocalDate> dates);
+
+    @Query("SELECT b.id, b.bookingDate FROM Booking b WHERE b.user.id = :userId AND b.timeSlot.id = :timeSlotId " +
+           "AND b.bookingDate IN :dates AND b.status = 'CONFIRMED'")
+    List<Object[]> findConfirmedBookingIds(@Param("userId") Long userId,
+                                           @Param("timeSlotId") Long timeSlotId,
+                                           @Param("dates") Collection<LocalDate> dates);
+
+    @Query("SELECT b.timeSlot.id, b.bookingDate, COUNT(b) FROM Booking b WHERE b.bookingDate BETWEEN :from AND :to " +
+           "AND b.status IN ('CONFIRMED', 'HELD') GROUP BY b.timeSlot.id, b.bookingDate")
+    List<Object[]> countReservedBookingsBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT b.id, b.bookingDate FROM Booking b WHERE b.status IN ('CANCELLED', 'EXPIRED') AND b.bookingDate >= :date")
+    List<Object[]> findRevokedBookingsFrom(@Param("date") LocalDate date);
+
+    @Query("SELECT b.id FROM Booking b WHERE b.bookingDate = :date AND b.checkInTime IS NOT NULL")
+    List<Long> findCheckedInBookingIdsOn(@Param("date") LocalDate date);
+
+    @Query("SELECT b.id, b.gym.id, b.checkInTime FROM Booking b " +
+           "WHERE b.checkInTime >= :since AND b.checkOutTime IS NULL")
+    List<Object[]> findPresentSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT MIN(b.bookingDate) FROM Booking b WHERE b.status = 'CONFIRMED' " +
+           "AND b.checkInTime IS NULL AND b.bookingDate < :before")
+    LocalDate findEarliestUnattendedDateBefore(@Param("before") LocalDate before);
+
+    @Query("SELECT b.id, b.holdExpiresAt FROM Booking b WHERE b.status = 'HELD'")
+    List<Object[]> findOutstandingHolds();
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.cloudgym.repository;
+
+import com.cloudgym.entity.GymOccupancyProfile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GymOccupancyProfileRepository extends JpaRepository<GymOccupancyProfile, Long> {
+}
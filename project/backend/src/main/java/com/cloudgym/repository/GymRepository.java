@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -34,4 +35,12 @@ List<Object[]> findNearbyGyms(@Param("lat") Double latitude,
 
     @Query("SELECT g FROM Gym g WHERE g.rating >= :minRating")
     List<Gym> findByRatingGreaterThanEqual(@Param("minRating") Double minRating);
-}
\ No newline at end of file
+
+    @Query("SELECT g.id FROM Gym g")
+    List<Long> findAllIds();
+
+    // Initializes the images of every listed gym in the current session with one
+    // query instead of a lazy load per gym.
+    @Query("SELECT DISTINCT g FROM Gym g LEFT JOIN FETCH g.images WHERE g.id IN :ids")
+    List<Gym> fetchImages(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,65 @@
+package com.cloudgym.repository;
+
+import com.cloudgym.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    // Claims the key; the unique constraint makes concurrent retries lose with 0 rows
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO idempotency_keys (user_id, scope, idempotency_key, request_hash, status, " +
+                   "created_at, updated_at) VALUES (:userId, :scope, :key, :requestHash, 'IN_PROGRESS', :now, :now)",
+           nativeQuery = true)
+    int claim(@Param("userId") Long userId,
+              @Param("scope") String scope,
+              @Param("key") String key,
+              @Param("requestHash") String requestHash,
+              @Param("now") LocalDateTime now);
+
+    // Takes over a claim whose owner stopped updating it before the lease ran out;
+    // only one concurrent retry matches the old updated_at
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.updatedAt = :now " +
+           "WHERE r.userId = :userId AND r.scope = :scope AND r.idempotencyKey = :key " +
+           "AND r.requestHash = :requestHash AND r.status = 'IN_PROGRESS' AND r.updatedAt < :staleBefore")
+    int reclaim(@Param("userId") Long userId,
+                @Param("scope") String scope,
+                @Param("key") String key,
+                @Param("requestHash") String requestHash,
+                @Param("staleBefore") LocalDateTime staleBefore,
+                @Param("now") LocalDateTime now);
+
+    @Query("SELECT r FROM IdempotencyRecord r WHERE r.userId = :userId AND r.scope = :scope AND r.idempotencyKey = :key")
+    Optional<IdempotencyRecord> findByKey(@Param("userId") Long userId,
+                                          @Param("scope") String scope,
+                                          @Param("key") String key);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = 'COMPLETED', r.responseStatus = :responseStatus, " +
+           "r.responseBody = :responseBody, r.updatedAt = :now " +
+           "WHERE r.userId = :userId AND r.scope = :scope AND r.idempotencyKey = :key")
+    int complete(@Param("userId") Long userId,
+                 @Param("scope") String scope,
+                 @Param("key") String key,
+                 @Param("responseStatus") Integer responseStatus,
+                 @Param("responseBody") String responseBody,
+                 @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.userId = :userId AND r.scope = :scope " +
+           "AND r.idempotencyKey = :key AND r.status = 'IN_PROGRESS'")
+    int release(@Param("userId") Long userId,
+                @Param("scope") String scope,
+                @Param("key") String key);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
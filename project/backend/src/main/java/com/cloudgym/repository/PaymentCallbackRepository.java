@@ -0,0 +1,30 @@
+package com.cloudgym.repository;
+
+import com.cloudgym.entity.PaymentCallback;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentCallbackRepository extends JpaRepository<PaymentCallback, Long> {
+
+    // Only the oldest unfinished callback of each payment is due, which keeps them in order;
+    // a dead callback holds back the ones after it until it is retried
+    @Query("SELECT c FROM PaymentCallback c WHERE c.status = 'PENDING' AND c.nextAttemptAt <= :now " +
+           "AND NOT EXISTS (SELECT 1 FROM PaymentCallback e WHERE e.paymentId = c.paymentId AND e.id < c.id " +
+           "AND e.status IN ('PENDING', 'PROCESSING', 'DEAD')) ORDER BY c.id")
+    List<PaymentCallback> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT COUNT(c) FROM PaymentCallback c WHERE c.status = 'PENDING' AND EXISTS " +
+           "(SELECT 1 FROM PaymentCallback e WHERE e.paymentId = c.paymentId AND e.id < c.id AND e.status = 'DEAD')")
+    long countBlockedByDead();
+
+    @Query("SELECT COUNT(c), MIN(c.createdAt) FROM PaymentCallback c WHERE c.status IN ('PENDING', 'PROCESSING')")
+    List<Object[]> findBacklog();
+
+    long countByStatus(PaymentCallback.Status status);
+}
@@ -2,6 +2,7 @@ package com.cloudgym.repository;
 
 import com.cloudgym.entity.Payment;
 import com.cloudgym.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,6 +14,17 @@ import java.util.Optional;
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
     List<Payment> findByUserOrderByCreatedAtDesc(User user);
+
+    @Query("SELECT p FROM Payment p WHERE p.user.id = :userId ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findHistoryByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT p FROM Payment p WHERE p.user.id = :userId " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findHistoryByUserIdBefore(@Param("userId") Long userId,
+                                            @Param("createdAt") java.time.LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
     
     Optional<Payment> findByPaymentId(String paymentId);
     
@@ -24,7 +36,4 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
     @Query("SELECT p FROM Payment p WHERE p.subscription.id = :subscriptionId")
     Optional<Payment> findBySubscriptionId(@Param("subscriptionId") Long subscriptionId);
-    
-    @Query("SELECT p FROM Payment p WHERE p.status = 'PENDING' AND p.createdAt < :cutoffTime")
-    List<Payment> findPendingPaymentsOlderThan(@Param("cutoffTime") java.time.LocalDateTime cutoffTime);
 }
\ No newline at end of file
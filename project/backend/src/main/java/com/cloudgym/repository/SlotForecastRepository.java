@@ -0,0 +1,45 @@
+package com.cloudgym.repository;
+
+import com.cloudgym.entity.SlotForecast;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Repository
+public interface SlotForecastRepository extends JpaRepository<SlotForecast, Long> {
+
+    @Query("SELECT f FROM SlotForecast f JOIN FETCH f.gym WHERE f.gym.id = :gymId " +
+           "AND f.forecastDate BETWEEN :from AND :to ORDER BY f.forecastDate, f.startTime")
+    List<SlotForecast> findByGymIdBetween(@Param("gymId") Long gymId,
+                                          @Param("from") LocalDate from,
+                                          @Param("to") LocalDate to);
+
+    @Query("SELECT f FROM SlotForecast f JOIN FETCH f.gym WHERE f.gym.id = :gymId " +
+           "AND f.forecastDate BETWEEN :from AND :to " +
+           "AND (f.forecastDate > :from OR f.startTime > :after) " +
+           "ORDER BY f.crowdRatio, f.forecastDate, f.startTime")
+    List<SlotForecast> findLeastCrowdedByGymId(@Param("gymId") Long gymId,
+                                               @Param("from") LocalDate from,
+                                               @Param("to") LocalDate to,
+                                               @Param("after") LocalTime after,
+                                               Pageable pageable);
+
+    @Query("SELECT f FROM SlotForecast f JOIN FETCH f.gym g " +
+           "WHERE g.latitude BETWEEN :minLat AND :maxLat AND g.longitude BETWEEN :minLng AND :maxLng " +
+           "AND f.forecastDate BETWEEN :from AND :to " +
+           "AND (f.forecastDate > :from OR f.startTime > :after) " +
+           "ORDER BY f.crowdRatio, f.forecastDate, f.startTime")
+    List<SlotForecast> findLeastCrowdedInArea(@Param("minLat") Double minLat,
+                                              @Param("maxLat") Double maxLat,
+                                              @Param("minLng") Double minLng,
+                                              @Param("maxLng") Double maxLng,
+                                              @Param("from") LocalDate from,
+                                              @Param("to") LocalDate to,
+                                              @Param("after") LocalTime after,
+                                              Pageable pageable);
+}
@@ -2,6 +2,7 @@ package com.cloudgym.repository;
 
 import com.cloudgym.entity.Subscription;
 import com.cloudgym.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,6 +15,17 @@ import java.util.Optional;
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
     
     List<Subscription> findByUserOrderByCreatedAtDesc(User user);
+
+    @Query("SELECT s FROM Subscription s WHERE s.user.id = :userId ORDER BY s.createdAt DESC, s.id DESC")
+    List<Subscription> findHistoryByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT s FROM Subscription s WHERE s.user.id = :userId " +
+           "AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id)) " +
+           "ORDER BY s.createdAt DESC, s.id DESC")
+    List<Subscription> findHistoryByUserIdBefore(@Param("userId") Long userId,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id,
+                                                 Pageable pageable);
     
     @Query("SELECT s FROM Subscription s WHERE s.user = :user AND s.status = 'ACTIVE' AND s.endDate > :now")
     Optional<Subscription> findActiveSubscriptionByUser(@Param("user") User user, @Param("now") LocalDateTime now);
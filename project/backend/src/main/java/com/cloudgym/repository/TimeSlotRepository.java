@@ -14,4 +14,7 @@ public interface TimeSlotRepository extends JpaRepository<TimeSlot, Long> {
     
     @Query("SELECT ts FROM TimeSlot ts WHERE ts.gym.id = :gymId AND ts.availableSpots > 0")
     List<TimeSlot> findAvailableSlotsByGymId(@Param("gymId") Long gymId);
-}
\ No newline at end of file
+
+    @Query("SELECT ts FROM TimeSlot ts JOIN FETCH ts.gym")
+    List<TimeSlot> findAllWithGym();
+}
@@ -0,0 +1,17 @@
+package com.cloudgym.repository;
+
+import com.cloudgym.entity.TimetableException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface TimetableExceptionRepository extends JpaRepository<TimetableException, Long> {
+
+    @Query("SELECT e FROM TimetableException e LEFT JOIN FETCH e.rule WHERE e.gym.id = :gymId " +
+           "AND e.exceptionDate >= :from ORDER BY e.exceptionDate")
+    List<TimetableException> findByGymIdFrom(@Param("gymId") Long gymId, @Param("from") LocalDate from);
+}
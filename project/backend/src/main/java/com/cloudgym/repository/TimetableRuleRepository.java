@@ -0,0 +1,15 @@
+package com.cloudgym.repository;
+
+import com.cloudgym.entity.TimetableRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface TimetableRuleRepository extends JpaRepository<TimetableRule, Long> {
+
+    @Query("SELECT r FROM TimetableRule r JOIN FETCH r.timeSlot WHERE r.gym.id = :gymId ORDER BY r.startTime")
+    List<TimetableRule> findByGymId(@Param("gymId") Long gymId);
+}
@@ -0,0 +1,45 @@
+package com.cloudgym.repository;
+
+import com.cloudgym.entity.UserBookingView;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface UserBookingViewRepository extends JpaRepository<UserBookingView, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM UserBookingView v WHERE v.userId = :userId")
+    Optional<UserBookingView> findForUpdate(@Param("userId") Long userId);
+
+    // A view built by a reader never overwrites one written by a booking change
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_booking_views (user_id, document, has_more, updated_at) " +
+                   "VALUES (:userId, :document, :hasMore, :updatedAt)", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId,
+                       @Param("document") String document,
+                       @Param("hasMore") Boolean hasMore,
+                       @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("DELETE FROM UserBookingView v WHERE v.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "DELETE v FROM user_booking_views v JOIN bookings b ON b.user_id = v.user_id " +
+                   "WHERE b.booking_date = :date AND b.status = :status", nativeQuery = true)
+    int deleteByBookingDateAndStatus(@Param("date") LocalDate date, @Param("status") String status);
+
+    @Modifying
+    @Query(value = "DELETE v FROM user_booking_views v JOIN bookings b ON b.user_id = v.user_id " +
+                   "WHERE b.id IN (:bookingIds)", nativeQuery = true)
+    int deleteByBookingIds(@Param("bookingIds") Collection<Long> bookingIds);
+}
@@ -0,0 +1,24 @@
+package com.cloudgym.repository;
+
+import com.cloudgym.entity.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.timeSlot.id = :timeSlotId AND w.bookingDate = :date " +
+           "AND w.status = 'WAITING' ORDER BY w.createdAt, w.id")
+    List<WaitlistEntry> findWaitingByTimeSlotAndDate(@Param("timeSlotId") Long timeSlotId, @Param("date") LocalDate date);
+
+    @Query("SELECT COUNT(w) > 0 FROM WaitlistEntry w WHERE w.user.id = :userId AND w.timeSlot.id = :timeSlotId " +
+           "AND w.bookingDate = :date AND w.status = 'WAITING'")
+    boolean existsWaitingEntry(@Param("userId") Long userId, @Param("timeSlotId") Long timeSlotId, @Param("date") LocalDate date);
+
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.user.id = :userId AND w.status = 'WAITING' ORDER BY w.bookingDate")
+    List<WaitlistEntry> findWaitingByUserId(@Param("userId") Long userId);
+}
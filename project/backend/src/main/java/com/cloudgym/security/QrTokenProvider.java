@@ -0,0 +1,108 @@
+package com.cloudgym.security;
+
+import com.cloudgym.entity.Booking;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Base64;
+
+/**
+ * Issues and verifies booking QR payloads. A token carries the booking id, gym id and
+ * slot window and is signed with HMAC-SHA256, so a scanner can decide whether it is
+ * valid without reading the booking from the database.
+ */
+@Component
+public class QrTokenProvider {
+
+    private static final String PREFIX = "CG1";
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Value("${booking.qr.secret:${spring.security.jwt.secret}}")
+    private String qrSecret;
+
+    @Value("${booking.qr.early-entry-minutes:30}")
+    private long earlyEntryMinutes;
+
+    public String generateToken(Booking booking) {
+        LocalDate date = booking.getBookingDate();
+        LocalTime start = booking.getTimeSlot().getStartTime();
+        LocalTime end = booking.getTimeSlot().getEndTime();
+        return generateToken(booking.getId(), booking.getGym().getId(), date, start, end);
+    }
+
+    public String generateToken(Long bookingId, Long gymId, LocalDate date, LocalTime start, LocalTime end) {
+        String payload = String.join("|", bookingId.toString(), gymId.toString(),
+                date.toString(), start.toString(), end.toString());
+        String encodedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        String body = PREFIX + "." + encodedPayload;
+        return body + "." + sign(body);
+    }
+
+    public boolean isSignedToken(String token) {
+        return token != null && token.startsWith(PREFIX + ".");
+    }
+
+    /**
+     * Checks the signature only. Use {@link QrClaims#isValidAt(LocalDateTime)} for the
+     * slot window.
+     */
+    public QrClaims parseToken(String token) {
+        if (!isSignedToken(token)) {
+            throw new RuntimeException("Invalid QR code");
+        }
+        int signatureStart = token.lastIndexOf('.');
+        String body = token.substring(0, signatureStart);
+        byte[] expected = sign(body).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = token.substring(signatureStart + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw new RuntimeException("Invalid QR code");
+        }
+
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(body.substring(PREFIX.length() + 1)),
+                    StandardCharsets.UTF_8);
+            String[] parts = payload.split("\\|");
+            LocalDate date = LocalDate.parse(parts[2]);
+            LocalTime start = LocalTime.parse(parts[3]);
+            LocalTime end = LocalTime.parse(parts[4]);
+            return new QrClaims(Long.valueOf(parts[0]), Long.valueOf(parts[1]), date, start, end, earlyEntryMinutes);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid QR code");
+        }
+    }
+
+    private String sign(String body) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(qrSecret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            byte[] signature = mac.doFinal(body.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("QR signing is unavailable", e);
+        }
+    }
+
+    public record QrClaims(Long bookingId, Long gymId, LocalDate date, LocalTime startTime, LocalTime endTime,
+                           long earlyEntryMinutes) {
+
+        public LocalDateTime validFrom() {
+            return date.atTime(startTime).minusMinutes(earlyEntryMinutes);
+        }
+
+        public LocalDateTime validUntil() {
+            return date.atTime(endTime);
+        }
+
+        public boolean isValidAt(LocalDateTime time) {
+            return !time.isBefore(validFrom()) && time.isBefore(validUntil());
+        }
+    }
+}
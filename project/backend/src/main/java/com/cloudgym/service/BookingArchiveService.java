@@ -0,0 +1,147 @@
+package com.cloudgym.service;
+
+import com.cloudgym.entity.JobCheckpoint;
+import com.cloudgym.repository.ArchivedBookingRepository;
+import com.cloudgym.repository.JobCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Moves finished bookings older than the retention window from the hot bookings
+ * table into bookings_archive. Each batch copies and deletes its rows in one
+ * transaction. Payments and waitlist entries referencing a moved booking keep its
+ * id in archived_booking_id and drop their foreign key to the bookings table in the
+ * same transaction. The cutoff of the last completed run is checkpointed and the
+ * next run starts scanning from there.
+ */
+@Service
+public class BookingArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingArchiveService.class);
+
+    public static final String JOB_NAME = "booking-archiver";
+
+    private static final String COLUMNS =
+            "id, user_id, gym_id, time_slot_id, booking_date, status, qr_code, check_in_time, " +
+            "check_out_time, hold_expires_at, price, created_at, updated_at";
+
+    private static final String SELECT_BATCH_SQL =
+            "SELECT b.id, b.booking_date FROM bookings b " +
+            "WHERE b.booking_date < ? " +
+            "AND (b.booking_date > ? OR (b.booking_date = ? AND b.id > ?)) " +
+            "AND b.status IN ('COMPLETED', 'NO_SHOW', 'CANCELLED', 'EXPIRED') " +
+            "ORDER BY b.booking_date, b.id LIMIT ?";
+
+    // MySQL assigns left to right, so archived_booking_id receives the old booking_id
+    private static final String DETACH_PAYMENTS_SQL =
+            "UPDATE payments SET archived_booking_id = booking_id, booking_id = NULL WHERE booking_id IN (%s)";
+
+    private static final String DETACH_WAITLIST_SQL =
+            "UPDATE waitlist_entries SET archived_booking_id = booking_id, booking_id = NULL WHERE booking_id IN (%s)";
+
+    @Value("${booking.archive.retention-months:6}")
+    private int retentionMonths;
+
+    @Value("${booking.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Newest created_at in the archive; history pages older than this may need archived rows
+    private volatile LocalDateTime newestArchived;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadWatermark() {
+        newestArchived = archivedBookingRepository.findNewestCreatedAt();
+    }
+
+    /**
+     * Whether archived bookings can belong to a history page whose rows from the hot
+     * table end at {@code oldestHot} (null when the hot table had no rows left).
+     */
+    public boolean mayHoldHistoryBefore(LocalDateTime oldestHot) {
+        LocalDateTime watermark = newestArchived;
+        return watermark != null && (oldestHot == null || !oldestHot.isAfter(watermark));
+    }
+
+    @Scheduled(cron = "${booking.archive.cron:0 30 2 * * *}")
+    public void archive() {
+        LocalDate cutoff = LocalDate.now().minusMonths(retentionMonths);
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(JOB_NAME)
+                .orElseGet(() -> new JobCheckpoint(JOB_NAME, LocalDate.of(1970, 1, 1)));
+        LocalDate from = checkpoint.getProcessedThrough();
+        if (!from.isBefore(cutoff)) {
+            return;
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        LocalDate lastDate = from;
+        long lastId = 0;
+        int total = 0;
+        while (true) {
+            List<Object[]> batch = jdbcTemplate.query(SELECT_BATCH_SQL,
+                    (rs, rowNum) -> new Object[] { rs.getLong(1), rs.getDate(2).toLocalDate() },
+                    Date.valueOf(cutoff), Date.valueOf(lastDate), Date.valueOf(lastDate), lastId, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<Long> ids = batch.stream().map(row -> (Long) row[0]).toList();
+            transaction.executeWithoutResult(status -> moveToArchive(ids));
+            total += ids.size();
+
+            Object[] last = batch.get(batch.size() - 1);
+            lastId = (Long) last[0];
+            lastDate = (LocalDate) last[1];
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        checkpoint.setProcessedThrough(cutoff);
+        jobCheckpointRepository.save(checkpoint);
+        if (total > 0) {
+            newestArchived = archivedBookingRepository.findNewestCreatedAt();
+        }
+        logger.info("Archived {} bookings dated before {}", total, cutoff);
+    }
+
+    private void moveToArchive(List<Long> ids) {
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Object[] args = ids.toArray();
+
+        Object[] insertArgs = new Object[ids.size() + 1];
+        insertArgs[0] = Timestamp.valueOf(LocalDateTime.now());
+        System.arraycopy(args, 0, insertArgs, 1, args.length);
+        jdbcTemplate.update("INSERT INTO bookings_archive (" + COLUMNS + ", archived_at) " +
+                "SELECT " + COLUMNS + ", ? FROM bookings WHERE id IN (" + placeholders + ")", insertArgs);
+
+        jdbcTemplate.update(String.format(DETACH_PAYMENTS_SQL, placeholders), args);
+        jdbcTemplate.update(String.format(DETACH_WAITLIST_SQL, placeholders), args);
+        jdbcTemplate.update("DELETE FROM bookings WHERE id IN (" + placeholders + ")", args);
+    }
+}
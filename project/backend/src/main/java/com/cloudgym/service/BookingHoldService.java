@@ -0,0 +1,127 @@
+package com.cloudgym.service;
+
+import com.cloudgym.repository.BookingRepository;
+import com.cloudgym.util.HierarchicalTimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the expiry of HELD bookings on a hierarchical timing wheel. Each hold costs
+ * O(1) to add or release and nothing ever scans the bookings table for stale holds;
+ * outstanding holds are only read back once, when the application starts.
+ */
+@Service
+public class BookingHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingHoldService.class);
+
+    private static final long TICK_MS = 1000;
+    private static final int WHEEL_SIZE = 64;
+
+    @Value("${booking.hold.ttl-minutes:10}")
+    private long holdTtlMinutes;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    // Lazy to break the cycle: BookingService places holds, expiry goes back through it
+    @Lazy
+    @Autowired
+    private BookingService bookingService;
+
+    private final HierarchicalTimingWheel<Long> wheel =
+            new HierarchicalTimingWheel<>(TICK_MS, WHEEL_SIZE, System.currentTimeMillis());
+    private final Map<Long, HierarchicalTimingWheel<Long>.Timeout> holds = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService ticker;
+    private ExecutorService expiryWorker;
+
+    @PostConstruct
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "booking-hold-ticker"));
+        expiryWorker = Executors.newSingleThreadExecutor(r -> daemon(r, "booking-hold-expiry"));
+        ticker.scheduleAtFixedRate(this::tick, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        expiryWorker.shutdown();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreOutstandingHolds() {
+        int restored = 0;
+        for (Object[] row : bookingRepository.findOutstandingHolds()) {
+            Long bookingId = (Long) row[0];
+            LocalDateTime expiresAt = (LocalDateTime) row[1];
+            hold(bookingId, expiresAt != null ? expiresAt : LocalDateTime.now());
+            restored++;
+        }
+        logger.info("Restored {} outstanding booking holds", restored);
+    }
+
+    public LocalDateTime nextExpiry() {
+        return LocalDateTime.now().plusMinutes(holdTtlMinutes);
+    }
+
+    public void hold(Long bookingId, LocalDateTime expiresAt) {
+        long expirationMs = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        HierarchicalTimingWheel<Long>.Timeout previous = holds.put(bookingId, wheel.schedule(bookingId, expirationMs));
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    public void release(Long bookingId) {
+        HierarchicalTimingWheel<Long>.Timeout timeout = holds.remove(bookingId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    public int getOutstandingHolds() {
+        return wheel.size();
+    }
+
+    private void tick() {
+        try {
+            wheel.advanceClock(System.currentTimeMillis(), bookingId -> {
+                holds.remove(bookingId);
+                expiryWorker.execute(() -> expire(bookingId));
+            });
+        } catch (Exception e) {
+            logger.error("Error advancing booking hold timer: ", e);
+        }
+    }
+
+    private void expire(Long bookingId) {
+        try {
+            bookingService.expireHold(bookingId);
+        } catch (Exception e) {
+            logger.error("Error expiring hold for booking {}: ", bookingId, e);
+        }
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread thread = new Thread(r, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
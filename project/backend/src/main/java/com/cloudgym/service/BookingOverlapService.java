@@ -0,0 +1,128 @@
+package com.cloudgym.service;
+
+import com.cloudgym.repository.BookingRepository;
+import com.cloudgym.util.DayIntervalSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stops a user from holding overlapping bookings, across gyms, on the same day.
+ * Each active user's days are kept as {@link DayIntervalSet}s in a bounded LRU
+ * cache, so the check is a binary search in memory; a day that is not cached is
+ * loaded with one indexed query. A new booking's range is claimed in the set before
+ * its transaction commits and released again if it rolls back, so two concurrent
+ * requests from the same user cannot both pass the check.
+ */
+@Service
+public class BookingOverlapService {
+
+    @Value("${booking.overlap.cache-size:50000}")
+    private int cacheSize;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private Map<DayKey, DayIntervalSet> days;
+
+    @PostConstruct
+    public void init() {
+        days = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<DayKey, DayIntervalSet> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public boolean overlaps(Long userId, LocalDate date, LocalTime start, LocalTime end) {
+        int[] range = toMinutes(start, end);
+        return day(userId, date, null).overlaps(range[0], range[1]);
+    }
+
+    /**
+     * Claims the booking's time range for the user, or throws if it overlaps one of
+     * their other bookings that day. Must be called inside the booking's transaction.
+     */
+    public void claim(Long userId, LocalDate date, LocalTime start, LocalTime end, Long bookingId) {
+        int[] range = toMinutes(start, end);
+        DayIntervalSet day = day(userId, date, bookingId);
+        if (!day.addIfFree(bookingId, range[0], range[1])) {
+            throw new RuntimeException("You already have a booking that overlaps this time");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    day.remove(bookingId);
+                }
+            }
+        });
+    }
+
+    /** Frees the range of a cancelled or expired booking once that is committed. */
+    public void release(Long userId, LocalDate date, Long bookingId) {
+        afterCommit(() -> {
+            DayIntervalSet day = days.get(new DayKey(userId, date));
+            if (day != null) {
+                day.remove(bookingId);
+            }
+        });
+    }
+
+    @Scheduled(cron = "0 10 0 * * *")
+    public void prunePastDays() {
+        LocalDate today = LocalDate.now();
+        synchronized (days) {
+            days.keySet().removeIf(key -> key.date().isBefore(today));
+        }
+    }
+
+    // The booking being claimed is already saved in this transaction, so a load skips it
+    private DayIntervalSet day(Long userId, LocalDate date, Long excludedBookingId) {
+        DayKey key = new DayKey(userId, date);
+        DayIntervalSet day = days.get(key);
+        if (day != null) {
+            return day;
+        }
+        DayIntervalSet loaded = new DayIntervalSet();
+        for (Object[] row : bookingRepository.findActiveIntervals(userId, date)) {
+            if (row[0].equals(excludedBookingId)) {
+                continue;
+            }
+            int[] range = toMinutes((LocalTime) row[1], (LocalTime) row[2]);
+            loaded.add((Long) row[0], range[0], range[1]);
+        }
+        DayIntervalSet existing = days.putIfAbsent(key, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private int[] toMinutes(LocalTime start, LocalTime end) {
+        return DayIntervalSet.toMinutes(start.getHour() * 60 + start.getMinute(), end.getHour() * 60 + end.getMinute());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record DayKey(Long userId, LocalDate date) {}
+}
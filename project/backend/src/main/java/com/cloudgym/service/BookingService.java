@@ -1,23 +1,35 @@
 package com.cloudgym.service;
 
 import com.cloudgym.dto.BookingDTO;
+import com.cloudgym.dto.CursorPageDTO;
 import com.cloudgym.dto.TimeSlotDTO;
+import com.cloudgym.entity.ArchivedBooking;
 import com.cloudgym.entity.Booking;
 import com.cloudgym.entity.Gym;
 import com.cloudgym.entity.TimeSlot;
 import com.cloudgym.entity.User;
+import com.cloudgym.entity.WaitlistEntry;
+import com.cloudgym.repository.ArchivedBookingRepository;
 import com.cloudgym.repository.BookingRepository;
 import com.cloudgym.repository.GymRepository;
 import com.cloudgym.repository.TimeSlotRepository;
 import com.cloudgym.repository.UserRepository;
+import com.cloudgym.security.QrTokenProvider;
+import com.cloudgym.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 public class BookingService {
@@ -34,19 +46,121 @@ public class BookingService {
     @Autowired
     private TimeSlotRepository timeSlotRepository;
 
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private BookingHoldService bookingHoldService;
+
+    @Autowired
+    private QrTokenProvider qrTokenProvider;
+
+    @Autowired
+    private CheckInService checkInService;
+
+    @Autowired
+    private OccupancyService occupancyService;
+
+    @Autowired
+    private GymEventStreamService gymEventStreamService;
+
+    @Autowired
+    private UserBookingViewService userBookingViewService;
+
+    @Autowired
+    private FrontDeskRosterService frontDeskRosterService;
+
+    @Autowired
+    private BookingOverlapService bookingOverlapService;
+
+    @Autowired
+    private FloorCapacityService floorCapacityService;
+
+    @Autowired
+    private BookingArchiveService bookingArchiveService;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Autowired
+    private TimetableService timetableService;
+
+    @Autowired
+    private PricingService pricingService;
+
     public List<TimeSlotDTO> getAvailableSlots(Long gymId, LocalDate date) {
         List<TimeSlot> timeSlots = timeSlotRepository.findByGymIdOrderByStartTime(gymId);
+        Set<Long> ruleBacked = timetableService.getRuleBackedSlotIds(gymId);
+        Integer floorCapacity = gymRepository.findById(gymId).map(Gym::getCapacity).orElse(null);
         
-        return timeSlots.stream().map(slot -> {
-            Long bookedCount = bookingRepository.countConfirmedBookingsByTimeSlotAndDate(slot.getId(), date);
+        List<TimeSlotDTO> slots = new ArrayList<>();
+        for (TimeSlot slot : timeSlots) {
+            if (ruleBacked.contains(slot.getId())) {
+                continue;
+            }
+            Long bookedCount = bookingRepository.countReservedBookingsByTimeSlotAndDate(slot.getId(), date);
             TimeSlotDTO dto = new TimeSlotDTO(slot);
-            dto.setAvailableSpots(slot.getTotalSpots() - bookedCount.intValue());
-            return dto;
-        }).toList();
+            // Overlapping slots share the gym floor, so a slot can be full before its own spots run out
+            dto.setAvailableSpots(Math.min(slot.getTotalSpots() - bookedCount.intValue(), floorCapacityService
+                    .remaining(gymId, floorCapacity, date, slot.getStartTime(), slot.getEndTime())));
+            dto.setPrice(pricingService.quote(slot.getId(), date, slot.getPrice(), slot.getTotalSpots(), bookedCount));
+            slots.add(dto);
+        }
+        // Rule-backed slots only appear on the dates their rule produces
+        for (TimetableService.SlotInstance instance : timetableService.expand(gymId, date)) {
+            Long bookedCount = bookingRepository.countReservedBookingsByTimeSlotAndDate(instance.timeSlotId(), date);
+            TimeSlotDTO dto = new TimeSlotDTO();
+            dto.setId(instance.timeSlotId());
+            dto.setGymId(gymId);
+            dto.setStartTime(instance.startTime().toString());
+            dto.setEndTime(instance.endTime().toString());
+            dto.setTotalSpots(instance.capacity());
+            dto.setAvailableSpots(Math.min(instance.capacity() - bookedCount.intValue(), floorCapacityService
+                    .remaining(gymId, floorCapacity, date, instance.startTime(), instance.endTime())));
+            dto.setPrice(pricingService.quote(instance.timeSlotId(), date, instance.price(),
+                    instance.capacity(), bookedCount));
+            dto.setDate(date);
+            slots.add(dto);
+        }
+        slots.sort(Comparator.comparing(TimeSlotDTO::getStartTime));
+        return slots;
     }
 
     @Transactional
     public BookingDTO createBooking(Long userId, Long gymId, Long timeSlotId, LocalDate bookingDate) {
+        Booking savedBooking = reserve(userId, gymId, timeSlotId, bookingDate, Booking.BookingStatus.CONFIRMED);
+        return new BookingDTO(savedBooking);
+    }
+
+    /**
+     * Reserves a spot for a booking that still has to be paid for. The spot is
+     * released automatically if payment does not confirm it before the hold expires.
+     */
+    @Transactional
+    public BookingDTO holdBooking(Long userId, Long gymId, Long timeSlotId, LocalDate bookingDate) {
+        return new BookingDTO(holdForCheckout(userId, gymId, timeSlotId, bookingDate));
+    }
+
+    /**
+     * Same as {@link #holdBooking} but returns the entity, with its user, gym and
+     * time slot loaded, so checkout can create the payment in the same transaction.
+     */
+    @Transactional
+    public Booking holdForCheckout(Long userId, Long gymId, Long timeSlotId, LocalDate bookingDate) {
+        Booking savedBooking = reserve(userId, gymId, timeSlotId, bookingDate, Booking.BookingStatus.HELD);
+
+        Long bookingId = savedBooking.getId();
+        LocalDateTime expiresAt = savedBooking.getHoldExpiresAt();
+        afterCommit(() -> bookingHoldService.hold(bookingId, expiresAt));
+
+        return savedBooking;
+    }
+
+    private Booking reserve(Long userId, Long gymId, Long timeSlotId, LocalDate bookingDate,
+                            Booking.BookingStatus status) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
@@ -57,26 +171,67 @@ public class BookingService {
                 .orElseThrow(() -> new RuntimeException("Time slot not found"));
 
         // Check availability
-        Long bookedCount = bookingRepository.countConfirmedBookingsByTimeSlotAndDate(timeSlotId, bookingDate);
-        if (bookedCount >= timeSlot.getTotalSpots()) {
+        int capacity = timetableService.capacityFor(timeSlot, bookingDate)
+                .orElseThrow(() -> new RuntimeException("Time slot is not offered on this date"));
+        Long bookedCount = bookingRepository.countReservedBookingsByTimeSlotAndDate(timeSlotId, bookingDate);
+        if (bookedCount >= capacity) {
             throw new RuntimeException("Time slot is fully booked");
         }
 
-        // Create booking
-        Booking booking = new Booking(user, gym, timeSlot, bookingDate, timeSlot.getPrice());
-        booking.setQrCode(generateQRCode());
+        // Create booking at the current effective price
+        double price = pricingService.quote(timeSlotId, bookingDate, timeSlot.getPrice(), capacity, bookedCount);
+        Booking booking = new Booking(user, gym, timeSlot, bookingDate, price);
+        booking.setStatus(status);
+        if (status == Booking.BookingStatus.HELD) {
+            booking.setHoldExpiresAt(bookingHoldService.nextExpiry());
+        }
         
         Booking savedBooking = bookingRepository.save(booking);
-        return new BookingDTO(savedBooking);
+        bookingOverlapService.claim(userId, bookingDate, timeSlot.getStartTime(), timeSlot.getEndTime(),
+                savedBooking.getId());
+        floorCapacityService.claim(gym, bookingDate, timeSlot.getStartTime(), timeSlot.getEndTime(),
+                savedBooking.getId());
+        afterCommit(() -> pricingService.recordReservation(timeSlotId, bookingDate));
+        publishAvailability(gym.getId(), timeSlot, bookingDate);
+        // Held bookings only get a QR code once payment confirms them
+        if (status == Booking.BookingStatus.CONFIRMED) {
+            savedBooking.setQrCode(qrTokenProvider.generateToken(savedBooking));
+        }
+        userBookingViewService.apply(savedBooking);
+        frontDeskRosterService.apply(savedBooking);
+        return savedBooking;
     }
 
-    public List<BookingDTO> getUserBookings(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    @Transactional
+    public CursorPageDTO<BookingDTO> getUserBookings(Long userId, String cursor, Integer limit) {
+        int pageSize = KeysetCursor.pageSize(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (after == null) {
+            // The newest page comes straight from the per-user read model
+            return userBookingViewService.getFirstPage(userId, pageSize);
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
         
-        return bookingRepository.findByUserOrderByCreatedAtDesc(user).stream()
-                .map(BookingDTO::new)
-                .toList();
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<Booking> bookings = bookingRepository.findHistoryByUserIdBefore(userId, after.createdAt(), after.id(), page);
+        LocalDateTime oldestHot = bookings.size() > pageSize ? bookings.get(pageSize).getCreatedAt() : null;
+        if (!bookingArchiveService.mayHoldHistoryBefore(oldestHot)) {
+            return CursorPageDTO.of(bookings, pageSize,
+                    booking -> new KeysetCursor(booking.getCreatedAt(), booking.getId()),
+                    userBookingViewService::toEntries);
+        }
+
+        // The page reaches back into archived history, so merge the next rows of both tables
+        List<ArchivedBooking> archived = archivedBookingRepository.findHistoryByUserIdBefore(userId,
+                after.createdAt(), after.id(), page);
+        List<BookingDTO> merged = new ArrayList<>(userBookingViewService.toEntries(bookings));
+        merged.addAll(userBookingViewService.toArchivedEntries(archived));
+        merged.sort(BookingDTO.NEWEST_FIRST);
+        return CursorPageDTO.of(merged.subList(0, Math.min(merged.size(), pageSize + 1)), pageSize,
+                booking -> new KeysetCursor(booking.getCreatedAt(), booking.getId()),
+                Function.identity());
     }
 
     public Optional<BookingDTO> getBookingById(Long id) {
@@ -88,21 +243,133 @@ public class BookingService {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
         
-        if (booking.getStatus() != Booking.BookingStatus.CONFIRMED) {
+        if (booking.getStatus() != Booking.BookingStatus.CONFIRMED
+                && booking.getStatus() != Booking.BookingStatus.HELD) {
             throw new RuntimeException("Booking cannot be cancelled");
         }
         
         booking.setStatus(Booking.BookingStatus.CANCELLED);
+        booking.setHoldExpiresAt(null);
         Booking updatedBooking = bookingRepository.save(booking);
+        userBookingViewService.apply(updatedBooking);
+        frontDeskRosterService.apply(updatedBooking);
+        LocalDate bookingDate = booking.getBookingDate();
+        Long timeSlotId = booking.getTimeSlot().getId();
+        afterCommit(() -> {
+            bookingHoldService.release(bookingId);
+            checkInService.revoke(bookingId, bookingDate);
+            pricingService.recordRelease(timeSlotId, bookingDate);
+        });
+        bookingOverlapService.release(booking.getUser().getId(), bookingDate, bookingId);
+        floorCapacityService.release(booking.getGym().getId(), bookingDate, bookingId);
+
+        // Hand the freed spot to the next user on the waitlist in the same transaction
+        waitlistService.promoteNext(booking.getTimeSlot().getId(), booking.getBookingDate(), this::fitsSchedule)
+                .ifPresent(this::bookPromotedEntry);
+        publishAvailability(booking.getGym().getId(), booking.getTimeSlot(), booking.getBookingDate());
+
         return new BookingDTO(updatedBooking);
     }
 
+    /**
+     * Called when a hold's timer fires. The status check makes this a no-op for
+     * holds that were paid for or cancelled in the meantime.
+     */
+    @Transactional
+    public void expireHold(Long bookingId) {
+        Booking booking = bookingRepository.findById(bookingId).orElse(null);
+        if (booking == null || booking.getStatus() != Booking.BookingStatus.HELD) {
+            return;
+        }
+
+        if (booking.getHoldExpiresAt() != null && booking.getHoldExpiresAt().isAfter(LocalDateTime.now())) {
+            // The hold was extended after this timer was set
+            bookingHoldService.hold(bookingId, booking.getHoldExpiresAt());
+            return;
+        }
+
+        booking.setStatus(Booking.BookingStatus.EXPIRED);
+        booking.setHoldExpiresAt(null);
+        bookingRepository.save(booking);
+        userBookingViewService.apply(booking);
+        frontDeskRosterService.apply(booking);
+        Long timeSlotId = booking.getTimeSlot().getId();
+        LocalDate bookingDate = booking.getBookingDate();
+        afterCommit(() -> pricingService.recordRelease(timeSlotId, bookingDate));
+        bookingOverlapService.release(booking.getUser().getId(), bookingDate, bookingId);
+        floorCapacityService.release(booking.getGym().getId(), bookingDate, bookingId);
+
+        waitlistService.promoteNext(booking.getTimeSlot().getId(), booking.getBookingDate(), this::fitsSchedule)
+                .ifPresent(this::bookPromotedEntry);
+        publishAvailability(booking.getGym().getId(), booking.getTimeSlot(), booking.getBookingDate());
+    }
+
+    // Waiters who booked an overlapping slot since joining are passed over, keeping their place
+    private boolean fitsSchedule(WaitlistEntry entry) {
+        return !bookingOverlapService.overlaps(entry.getUser().getId(), entry.getBookingDate(),
+                entry.getTimeSlot().getStartTime(), entry.getTimeSlot().getEndTime());
+    }
+
+    private void bookPromotedEntry(WaitlistEntry entry) {
+        // Promoted users are charged the base price, not a price inflated by the queue they waited in
+        Booking booking = new Booking(entry.getUser(), entry.getGym(), entry.getTimeSlot(),
+                entry.getBookingDate(), entry.getTimeSlot().getPrice());
+        Booking savedBooking = bookingRepository.save(booking);
+        Long timeSlotId = entry.getTimeSlot().getId();
+        LocalDate bookingDate = entry.getBookingDate();
+        afterCommit(() -> pricingService.recordReservation(timeSlotId, bookingDate));
+        bookingOverlapService.claim(entry.getUser().getId(), bookingDate, entry.getTimeSlot().getStartTime(),
+                entry.getTimeSlot().getEndTime(), savedBooking.getId());
+        floorCapacityService.record(entry.getGym().getId(), bookingDate, entry.getTimeSlot().getStartTime(),
+                entry.getTimeSlot().getEndTime(), savedBooking.getId());
+        savedBooking.setQrCode(qrTokenProvider.generateToken(savedBooking));
+        entry.setBooking(savedBooking);
+        userBookingViewService.apply(savedBooking);
+        frontDeskRosterService.apply(savedBooking);
+
+        User user = entry.getUser();
+        afterCommit(() -> notificationService.notifyWaitlistPromotion(user, savedBooking));
+    }
+
+    /**
+     * Pushes the slot's remaining spots to stream subscribers once the change is
+     * committed. The count is only queried when somebody is listening.
+     */
+    private void publishAvailability(Long gymId, TimeSlot timeSlot, LocalDate date) {
+        Long timeSlotId = timeSlot.getId();
+        int totalSpots = timetableService.capacityFor(timeSlot, date).orElse(0);
+        afterCommit(() -> {
+            if (gymEventStreamService.hasSubscribers(gymId)) {
+                Long bookedCount = bookingRepository.countReservedBookingsByTimeSlotAndDate(timeSlotId, date);
+                gymEventStreamService.publishAvailability(gymId, timeSlotId, date, totalSpots - bookedCount.intValue());
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     @Transactional
     public BookingDTO checkIn(Long bookingId, String qrCode) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
         
-        if (!booking.getQrCode().equals(qrCode)) {
+        if (qrTokenProvider.isSignedToken(qrCode)) {
+            QrTokenProvider.QrClaims claims = qrTokenProvider.parseToken(qrCode);
+            if (!claims.bookingId().equals(bookingId)) {
+                throw new RuntimeException("Invalid QR code");
+            }
+            if (!claims.isValidAt(LocalDateTime.now())) {
+                throw new RuntimeException("QR code is not valid at this time");
+            }
+        } else if (booking.getQrCode() == null || !booking.getQrCode().equals(qrCode)) {
+            // Bookings created before signed tokens carry a random code
             throw new RuntimeException("Invalid QR code");
         }
         
@@ -112,6 +379,15 @@ public class BookingService {
         
         booking.setCheckInTime(LocalDateTime.now());
         Booking updatedBooking = bookingRepository.save(booking);
+        userBookingViewService.apply(updatedBooking);
+        frontDeskRosterService.apply(updatedBooking);
+        LocalDate bookingDate = booking.getBookingDate();
+        Long gymId = booking.getGym().getId();
+        LocalDateTime checkInTime = booking.getCheckInTime();
+        afterCommit(() -> {
+            checkInService.markAdmitted(bookingId, bookingDate);
+            occupancyService.recordCheckIn(bookingId, gymId, checkInTime);
+        });
         return new BookingDTO(updatedBooking);
     }
 
@@ -127,10 +403,9 @@ public class BookingService {
         booking.setCheckOutTime(LocalDateTime.now());
         booking.setStatus(Booking.BookingStatus.COMPLETED);
         Booking updatedBooking = bookingRepository.save(booking);
+        userBookingViewService.apply(updatedBooking);
+        frontDeskRosterService.apply(updatedBooking);
+        afterCommit(() -> occupancyService.recordCheckOut(bookingId));
         return new BookingDTO(updatedBooking);
     }
-
-    private String generateQRCode() {
-        return UUID.randomUUID().toString();
-    }
 }
\ No newline at end of file
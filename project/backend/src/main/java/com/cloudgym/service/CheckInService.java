@@ -0,0 +1,178 @@
+package com.cloudgym.service;
+
+import com.cloudgym.dto.ScanResultDTO;
+import com.cloudgym.repository.BookingRepository;
+import com.cloudgym.security.QrTokenProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Admits members from signed QR tokens without touching the database. Accepted scans
+ * are queued and written to the bookings table in batches; if the database is
+ * unavailable the queue is kept and retried on the next flush.
+ *
+ * Cancelled bookings keep a validly signed token, so cancellations are tracked in an
+ * in-memory revocation list that is rebuilt from the table on startup.
+ */
+@Service
+public class CheckInService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckInService.class);
+
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private static final String CHECK_IN_SQL =
+            "UPDATE bookings SET check_in_time = ?, updated_at = ? " +
+            "WHERE id = ? AND status = 'CONFIRMED' AND check_in_time IS NULL";
+
+    @Autowired
+    private QrTokenProvider qrTokenProvider;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OccupancyService occupancyService;
+
+    @Autowired
+    private UserBookingViewService userBookingViewService;
+
+    // Booking id -> booking date, so both maps can be pruned once the day has passed
+    private final Map<Long, LocalDate> admitted = new ConcurrentHashMap<>();
+    private final Map<Long, LocalDate> revoked = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedQueue<PendingCheckIn> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadState() {
+        LocalDate today = LocalDate.now();
+        for (Object[] row : bookingRepository.findRevokedBookingsFrom(today)) {
+            revoked.put((Long) row[0], (LocalDate) row[1]);
+        }
+        for (Long bookingId : bookingRepository.findCheckedInBookingIdsOn(today)) {
+            admitted.put(bookingId, today);
+        }
+        logger.info("Loaded {} revoked and {} admitted bookings for QR validation", revoked.size(), admitted.size());
+    }
+
+    public ScanResultDTO scan(String qrCode, Long gymId) {
+        return scan(qrCode, gymId, LocalDateTime.now());
+    }
+
+    /**
+     * Validates a QR token entirely in memory. An accepted scan is queued for the
+     * next batched write and the booking cannot be used to enter again that day.
+     */
+    public ScanResultDTO scan(String qrCode, Long gymId, LocalDateTime scannedAt) {
+        QrTokenProvider.QrClaims claims;
+        try {
+            claims = qrTokenProvider.parseToken(qrCode);
+        } catch (RuntimeException e) {
+            return new ScanResultDTO(null, gymId, false, "Invalid QR code", scannedAt);
+        }
+
+        ScanResultDTO result = new ScanResultDTO(claims.bookingId(), claims.gymId(), false, null, scannedAt);
+        result.setValidUntil(claims.validUntil());
+
+        if (gymId != null && !gymId.equals(claims.gymId())) {
+            result.setReason("Booking is for a different gym");
+        } else if (!claims.isValidAt(scannedAt)) {
+            result.setReason("QR code is not valid at this time");
+        } else if (revoked.containsKey(claims.bookingId())) {
+            result.setReason("Booking has been cancelled");
+        } else if (admitted.putIfAbsent(claims.bookingId(), claims.date()) != null) {
+            result.setReason("Booking has already been checked in");
+        } else {
+            pendingWrites.add(new PendingCheckIn(claims.bookingId(), scannedAt));
+            occupancyService.recordCheckIn(claims.bookingId(), claims.gymId(), scannedAt);
+            result.setAccepted(true);
+        }
+        return result;
+    }
+
+    public void markAdmitted(Long bookingId, LocalDate bookingDate) {
+        admitted.put(bookingId, bookingDate);
+    }
+
+    public boolean isAdmitted(Long bookingId) {
+        return admitted.containsKey(bookingId);
+    }
+
+    public boolean isRevoked(Long bookingId) {
+        return revoked.containsKey(bookingId);
+    }
+
+    public void revoke(Long bookingId, LocalDate bookingDate) {
+        revoked.put(bookingId, bookingDate);
+    }
+
+    public int getPendingWrites() {
+        return pendingWrites.size();
+    }
+
+    @Scheduled(fixedDelayString = "${booking.check-in.flush-interval-ms:2000}")
+    public void flushPendingWrites() {
+        flushBatch();
+    }
+
+    /** Writes every queued check-in now, for callers that need check_in_time to be set. */
+    public void flushAll() {
+        while (flushBatch()) {
+            // Keep going until the queue is empty or a write fails
+        }
+    }
+
+    private boolean flushBatch() {
+        List<PendingCheckIn> batch = new ArrayList<>();
+        PendingCheckIn next;
+        while (batch.size() < FLUSH_BATCH_SIZE && (next = pendingWrites.poll()) != null) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = batch.stream()
+                .map(p -> new Object[] { Timestamp.valueOf(p.checkInTime()), now, p.bookingId() })
+                .toList();
+        try {
+            jdbcTemplate.batchUpdate(CHECK_IN_SQL, args);
+            userBookingViewService.invalidateForBookings(batch.stream().map(PendingCheckIn::bookingId).toList());
+            logger.debug("Flushed {} check-ins", batch.size());
+            return true;
+        } catch (DataAccessException e) {
+            // Keep the scans and try again on the next run
+            pendingWrites.addAll(batch);
+            logger.warn("Could not flush {} check-ins, will retry: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    @Scheduled(cron = "0 0 3 * * *")
+    public void pruneExpiredEntries() {
+        LocalDate today = LocalDate.now();
+        admitted.values().removeIf(date -> date.isBefore(today));
+        revoked.values().removeIf(date -> date.isBefore(today));
+    }
+
+    private record PendingCheckIn(Long bookingId, LocalDateTime checkInTime) {}
+}
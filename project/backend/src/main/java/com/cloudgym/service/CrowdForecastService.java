@@ -0,0 +1,198 @@
+package com.cloudgym.service;
+
+import com.cloudgym.dto.SlotForecastDTO;
+import com.cloudgym.entity.TimeSlot;
+import com.cloudgym.repository.BookingRepository;
+import com.cloudgym.repository.SlotForecastRepository;
+import com.cloudgym.repository.TimeSlotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-slot crowd forecast for the next seven days, refit on a schedule into the
+ * slot_forecasts table so reads are plain indexed lookups. The seasonal baseline is
+ * the gym's rolling hour-of-week occupancy over the slot's hours; reserved bookings
+ * act as a floor, since members who booked are expected to turn up. Only forecasts
+ * whose values changed since the previous refit are written back, and rows for slots
+ * that are no longer offered on a date are deleted.
+ */
+@Service
+public class CrowdForecastService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrowdForecastService.class);
+
+    public static final int HORIZON_DAYS = 7;
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO slot_forecasts (gym_id, time_slot_id, forecast_date, start_time, end_time, " +
+            "predicted_occupancy, booked_count, capacity, crowd_ratio, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE start_time = VALUES(start_time), end_time = VALUES(end_time), " +
+            "predicted_occupancy = VALUES(predicted_occupancy), booked_count = VALUES(booked_count), " +
+            "capacity = VALUES(capacity), crowd_ratio = VALUES(crowd_ratio), updated_at = VALUES(updated_at)";
+
+    private static final String PRUNE_SQL = "DELETE FROM slot_forecasts WHERE forecast_date < ?";
+
+    private static final String STORED_KEYS_SQL =
+            "SELECT time_slot_id, forecast_date FROM slot_forecasts WHERE forecast_date BETWEEN ? AND ?";
+
+    private static final String DELETE_SQL = "DELETE FROM slot_forecasts WHERE time_slot_id = ? AND forecast_date = ?";
+
+    @Autowired
+    private TimeSlotRepository timeSlotRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SlotForecastRepository slotForecastRepository;
+
+    @Autowired
+    private OccupancyHistoryService occupancyHistoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TimetableService timetableService;
+
+    // Last values written per slot and date, so unchanged forecasts are not rewritten
+    private final Map<ForecastKey, Forecast> written = new ConcurrentHashMap<>();
+
+    @Scheduled(initialDelayString = "${forecast.initial-delay-ms:60000}",
+               fixedDelayString = "${forecast.refit-interval-ms:900000}")
+    @Transactional
+    public void refit() {
+        LocalDate today = LocalDate.now();
+        LocalDate horizon = today.plusDays(HORIZON_DAYS - 1);
+
+        Map<ForecastKey, Long> booked = new HashMap<>();
+        for (Object[] row : bookingRepository.countReservedBookingsBetween(today, horizon)) {
+            booked.put(new ForecastKey((Long) row[0], (LocalDate) row[1]), (Long) row[2]);
+        }
+
+        Set<ForecastKey> produced = new HashSet<>();
+        Map<ForecastKey, Forecast> changed = new HashMap<>();
+        List<Object[]> updates = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (TimeSlot slot : timeSlotRepository.findAllWithGym()) {
+            Integer gymCapacity = slot.getGym().getCapacity();
+            int capacity = gymCapacity != null && gymCapacity > 0 ? gymCapacity : slot.getTotalSpots();
+            for (LocalDate date = today; !date.isAfter(horizon); date = date.plusDays(1)) {
+                if (timetableService.capacityFor(slot, date).isEmpty()) {
+                    continue;
+                }
+                ForecastKey key = new ForecastKey(slot.getId(), date);
+                produced.add(key);
+                int bookedCount = booked.getOrDefault(key, 0L).intValue();
+                Double seasonal = seasonalBaseline(slot, date);
+                double predicted = seasonal != null ? Math.max(seasonal, bookedCount) : bookedCount;
+                predicted = Math.round(predicted * 100.0) / 100.0;
+
+                Forecast forecast = new Forecast(predicted, bookedCount, capacity);
+                if (forecast.equals(written.get(key))) {
+                    continue;
+                }
+                changed.put(key, forecast);
+                updates.add(new Object[] {
+                        slot.getGym().getId(), slot.getId(), Date.valueOf(date),
+                        Time.valueOf(slot.getStartTime()), Time.valueOf(slot.getEndTime()),
+                        predicted, bookedCount, capacity, predicted / capacity, now
+                });
+            }
+        }
+
+        // Slots dropped from a date, e.g. by a timetable exception, must not be recommended or priced
+        List<Object[]> stale = new ArrayList<>();
+        jdbcTemplate.query(STORED_KEYS_SQL, rs -> {
+            ForecastKey key = new ForecastKey(rs.getLong("time_slot_id"), rs.getDate("forecast_date").toLocalDate());
+            if (!produced.contains(key)) {
+                stale.add(new Object[] { key.timeSlotId(), Date.valueOf(key.date()) });
+            }
+        }, Date.valueOf(today), Date.valueOf(horizon));
+
+        int pruned = jdbcTemplate.update(PRUNE_SQL, Date.valueOf(today));
+        if (!stale.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_SQL, stale);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, updates);
+        }
+        written.keySet().retainAll(produced);
+        written.putAll(changed);
+        logger.info("Refit crowd forecast: {} slot-days updated, {} stale and {} past rows removed",
+                   updates.size(), stale.size(), pruned);
+    }
+
+    public List<SlotForecastDTO> getForecast(Long gymId) {
+        LocalDate today = LocalDate.now();
+        return slotForecastRepository.findByGymIdBetween(gymId, today, today.plusDays(HORIZON_DAYS - 1)).stream()
+                .map(SlotForecastDTO::new)
+                .toList();
+    }
+
+    public List<SlotForecastDTO> getLeastCrowded(Long gymId, int limit) {
+        LocalDate today = LocalDate.now();
+        return slotForecastRepository.findLeastCrowdedByGymId(gymId, today, today.plusDays(HORIZON_DAYS - 1),
+                        LocalTime.now(), PageRequest.of(0, limit)).stream()
+                .map(SlotForecastDTO::new)
+                .toList();
+    }
+
+    /** Expected crowd ratio of a slot on a date from the last refit, or null outside the horizon. */
+    public Double getCrowdRatio(Long timeSlotId, LocalDate date) {
+        Forecast forecast = written.get(new ForecastKey(timeSlotId, date));
+        return forecast != null && forecast.capacity() > 0 ? forecast.predicted() / forecast.capacity() : null;
+    }
+
+    /** Least crowded upcoming slots across gyms inside the bounding box around a point. */
+    public List<SlotForecastDTO> getLeastCrowdedNear(Double lat, Double lng, Double radiusKm, int limit) {
+        double latDelta = radiusKm / 111.0;
+        double lngDelta = radiusKm / (111.0 * Math.max(Math.cos(Math.toRadians(lat)), 0.01));
+        LocalDate today = LocalDate.now();
+        return slotForecastRepository.findLeastCrowdedInArea(lat - latDelta, lat + latDelta, lng - lngDelta, lng + lngDelta,
+                        today, today.plusDays(HORIZON_DAYS - 1), LocalTime.now(), PageRequest.of(0, limit)).stream()
+                .map(SlotForecastDTO::new)
+                .toList();
+    }
+
+    private Double seasonalBaseline(TimeSlot slot, LocalDate date) {
+        int firstHour = slot.getStartTime().getHour();
+        int lastHour = slot.getEndTime().minusMinutes(1).getHour();
+        if (lastHour < firstHour) {
+            lastHour = 23;
+        }
+        double sum = 0;
+        int hours = 0;
+        for (int hour = firstHour; hour <= lastHour; hour++) {
+            Double mean = occupancyHistoryService.getExpectedOccupancy(slot.getGym().getId(), date.getDayOfWeek(), hour);
+            if (mean != null) {
+                sum += mean;
+                hours++;
+            }
+        }
+        return hours > 0 ? sum / hours : null;
+    }
+
+    private record ForecastKey(Long timeSlotId, LocalDate date) {}
+
+    private record Forecast(double predicted, int booked, int capacity) {}
+}
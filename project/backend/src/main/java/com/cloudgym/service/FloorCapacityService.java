@@ -0,0 +1,186 @@
+package com.cloudgym.service;
+
+import com.cloudgym.entity.Gym;
+import com.cloudgym.repository.BookingRepository;
+import com.cloudgym.repository.GymRepository;
+import com.cloudgym.util.DayIntervalSet;
+import com.cloudgym.util.MinuteSegmentTree;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Enforces a gym's floor capacity across time slots of any length. Each gym's
+ * bookings for a day are counted per minute in a {@link MinuteSegmentTree}, so
+ * whether a session fits is a range-max over its minutes and booking it is a
+ * range-add. Per-slot spot limits still apply on top of this; gyms without a
+ * capacity are not limited here.
+ */
+@Service
+public class FloorCapacityService {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private GymRepository gymRepository;
+
+    private final Map<DayKey, FloorDay> days = new ConcurrentHashMap<>();
+
+    /** Highest number of concurrent bookings during [start, end) on the date. */
+    public int peak(Long gymId, LocalDate date, LocalTime start, LocalTime end) {
+        int[] range = toMinutes(start, end);
+        FloorDay day = day(gymId, date, null);
+        synchronized (day) {
+            return Math.max(0, day.tree.max(range[0], range[1]));
+        }
+    }
+
+    public boolean fits(Gym gym, LocalDate date, LocalTime start, LocalTime end) {
+        return remaining(gym.getId(), gym.getCapacity(), date, start, end) > 0;
+    }
+
+    /** Spots left on the floor for the whole of [start, end), or Integer.MAX_VALUE without a capacity. */
+    public int remaining(Long gymId, Integer capacity, LocalDate date, LocalTime start, LocalTime end) {
+        if (capacity == null || capacity <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.max(0, capacity - peak(gymId, date, start, end));
+    }
+
+    /** Answers whether a session of the given length starting at {@code start} fits on the floor. */
+    public Map<String, Object> checkFit(Long gymId, LocalDate date, LocalTime start, int minutes) {
+        Gym gym = gymRepository.findById(gymId)
+                .orElseThrow(() -> new RuntimeException("Gym not found"));
+        int untilMidnight = DayIntervalSet.MINUTES_PER_DAY - (start.getHour() * 60 + start.getMinute());
+        if (minutes < 1 || minutes > untilMidnight) {
+            throw new RuntimeException("Session must last between 1 and " + untilMidnight + " minutes");
+        }
+        LocalTime end = start.plusMinutes(minutes);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("gymId", gymId);
+        result.put("date", date);
+        result.put("startTime", start.toString());
+        result.put("endTime", end.toString());
+        result.put("capacity", gym.getCapacity());
+        result.put("peak", peak(gymId, date, start, end));
+        result.put("fits", fits(gym, date, start, end));
+        return result;
+    }
+
+    /**
+     * Counts a booking against the gym's floor, or throws if any minute of it is
+     * already at capacity. Must be called inside the booking's transaction; the
+     * count is taken back if the transaction rolls back.
+     */
+    public void claim(Gym gym, LocalDate date, LocalTime start, LocalTime end, Long bookingId) {
+        Integer capacity = gym.getCapacity();
+        int[] range = toMinutes(start, end);
+        FloorDay day = day(gym.getId(), date, bookingId);
+        synchronized (day) {
+            if (capacity != null && capacity > 0 && day.tree.max(range[0], range[1]) >= capacity) {
+                throw new RuntimeException("Gym is at capacity for part of this time");
+            }
+            day.add(bookingId, range);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    synchronized (day) {
+                        day.remove(bookingId);
+                    }
+                }
+            }
+        });
+    }
+
+    /** Counts a booking that was made without the capacity check, e.g. a waitlist promotion. */
+    public void record(Long gymId, LocalDate date, LocalTime start, LocalTime end, Long bookingId) {
+        int[] range = toMinutes(start, end);
+        afterCommit(() -> {
+            FloorDay day = days.get(new DayKey(gymId, date));
+            if (day != null) {
+                synchronized (day) {
+                    day.add(bookingId, range);
+                }
+            }
+        });
+    }
+
+    public void release(Long gymId, LocalDate date, Long bookingId) {
+        afterCommit(() -> {
+            FloorDay day = days.get(new DayKey(gymId, date));
+            if (day != null) {
+                synchronized (day) {
+                    day.remove(bookingId);
+                }
+            }
+        });
+    }
+
+    @Scheduled(cron = "0 15 0 * * *")
+    public void prunePastDays() {
+        LocalDate today = LocalDate.now();
+        days.keySet().removeIf(key -> key.date().isBefore(today));
+    }
+
+    // The booking being claimed is already saved in this transaction, so a load skips it
+    private FloorDay day(Long gymId, LocalDate date, Long excludedBookingId) {
+        return days.computeIfAbsent(new DayKey(gymId, date), key -> {
+            FloorDay day = new FloorDay();
+            for (Object[] row : bookingRepository.findActiveIntervalsByGymId(gymId, date)) {
+                if (!row[0].equals(excludedBookingId)) {
+                    day.add((Long) row[0], toMinutes((LocalTime) row[1], (LocalTime) row[2]));
+                }
+            }
+            return day;
+        });
+    }
+
+    private int[] toMinutes(LocalTime start, LocalTime end) {
+        return DayIntervalSet.toMinutes(start.getHour() * 60 + start.getMinute(), end.getHour() * 60 + end.getMinute());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record DayKey(Long gymId, LocalDate date) {}
+
+    // Ranges are kept per booking so adds and removes are idempotent
+    private static class FloorDay {
+        private final MinuteSegmentTree tree = new MinuteSegmentTree(DayIntervalSet.MINUTES_PER_DAY);
+        private final Map<Long, int[]> ranges = new HashMap<>();
+
+        private void add(Long bookingId, int[] range) {
+            if (ranges.putIfAbsent(bookingId, range) == null) {
+                tree.add(range[0], range[1], 1);
+            }
+        }
+
+        private void remove(Long bookingId) {
+            int[] range = ranges.remove(bookingId);
+            if (range != null) {
+                tree.add(range[0], range[1], -1);
+            }
+        }
+    }
+}
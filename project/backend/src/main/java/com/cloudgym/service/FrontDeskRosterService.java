@@ -0,0 +1,170 @@
+package com.cloudgym.service;
+
+import com.cloudgym.dto.RosterEntryDTO;
+import com.cloudgym.dto.ScanResultDTO;
+import com.cloudgym.entity.Booking;
+import com.cloudgym.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps each gym's booking roster for today and tomorrow in memory, indexed by QR
+ * code, so the front desk can look up and admit members without a database read
+ * per scan. A roster is loaded on first use and then updated from committed
+ * booking changes; bulk writes drop the affected rosters so they reload.
+ */
+@Service
+public class FrontDeskRosterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FrontDeskRosterService.class);
+
+    private static final Comparator<RosterEntryDTO> BY_START_TIME =
+            Comparator.comparing(RosterEntryDTO::getStartTime).thenComparing(RosterEntryDTO::getBookingId);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CheckInService checkInService;
+
+    private final Map<RosterKey, Roster> rosters = new ConcurrentHashMap<>();
+
+    public List<RosterEntryDTO> getRoster(Long gymId, LocalDate date) {
+        Collection<RosterEntryDTO> entries = isCached(date)
+                ? roster(gymId, date).entries.values()
+                : bookingRepository.findByGymIdAndDate(gymId, date).stream().map(RosterEntryDTO::new).toList();
+        return entries.stream()
+                .map(this::withCheckInState)
+                .sorted(BY_START_TIME)
+                .toList();
+    }
+
+    /**
+     * Admits the holder of a QR code at the desk. The code is looked up in today's
+     * roster and then validated and queued by {@link CheckInService}, so neither
+     * step reads the database once the roster is loaded.
+     */
+    public ScanResultDTO checkIn(Long gymId, String qrCode) {
+        LocalDateTime now = LocalDateTime.now();
+        Roster roster = roster(gymId, now.toLocalDate());
+        RosterEntryDTO entry = roster.findByQrCode(qrCode);
+        if (entry == null) {
+            return new ScanResultDTO(null, gymId, false, "Booking is not on today's roster", now);
+        }
+        if (!Booking.BookingStatus.CONFIRMED.name().equals(entry.getStatus())) {
+            return new ScanResultDTO(entry.getBookingId(), gymId, false,
+                    "Booking is " + entry.getStatus().toLowerCase(), now);
+        }
+        return checkInService.scan(qrCode, gymId, now);
+    }
+
+    /**
+     * Applies a booking change to its roster if that roster is loaded. Inside a
+     * transaction the change is applied after commit, so rolled-back bookings
+     * never reach the desk.
+     */
+    public void apply(Booking booking) {
+        if (!isCached(booking.getBookingDate())) {
+            return;
+        }
+        RosterKey key = new RosterKey(booking.getGym().getId(), booking.getBookingDate());
+        RosterEntryDTO entry = new RosterEntryDTO(booking);
+        afterCommit(() -> rosters.computeIfPresent(key, (k, roster) -> {
+            roster.put(entry);
+            return roster;
+        }));
+    }
+
+    /** Drops loaded rosters after bulk writes that bypass {@link #apply}. */
+    public void invalidate(Long gymId, Collection<LocalDate> dates) {
+        afterCommit(() -> dates.forEach(date -> rosters.remove(new RosterKey(gymId, date))));
+    }
+
+    @Scheduled(cron = "0 5 0 * * *")
+    public void pruneRosters() {
+        LocalDate today = LocalDate.now();
+        rosters.keySet().removeIf(key -> key.date().isBefore(today));
+    }
+
+    // The load runs inside computeIfAbsent, so a booking change committed while the
+    // roster is being read waits for it and is applied on top instead of being lost
+    private Roster roster(Long gymId, LocalDate date) {
+        return rosters.computeIfAbsent(new RosterKey(gymId, date), key -> {
+            Roster roster = new Roster();
+            for (Booking booking : bookingRepository.findByGymIdAndDate(gymId, date)) {
+                roster.put(new RosterEntryDTO(booking));
+            }
+            logger.info("Loaded roster for gym {} on {}: {} bookings", gymId, date, roster.entries.size());
+            return roster;
+        });
+    }
+
+    private RosterEntryDTO withCheckInState(RosterEntryDTO entry) {
+        RosterEntryDTO copy = new RosterEntryDTO();
+        copy.setBookingId(entry.getBookingId());
+        copy.setUserId(entry.getUserId());
+        copy.setUsername(entry.getUsername());
+        copy.setTimeSlotId(entry.getTimeSlotId());
+        copy.setStartTime(entry.getStartTime());
+        copy.setEndTime(entry.getEndTime());
+        copy.setBookingDate(entry.getBookingDate());
+        copy.setStatus(entry.getStatus());
+        copy.setQrCode(entry.getQrCode());
+        copy.setCheckInTime(entry.getCheckInTime());
+        // Desk scans are written behind, so the admitted set is ahead of the stored check-in time
+        copy.setCheckedIn(entry.isCheckedIn() || checkInService.isAdmitted(entry.getBookingId()));
+        return copy;
+    }
+
+    private boolean isCached(LocalDate date) {
+        LocalDate today = LocalDate.now();
+        return !date.isBefore(today) && !date.isAfter(today.plusDays(1));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record RosterKey(Long gymId, LocalDate date) {}
+
+    private static class Roster {
+        private final Map<Long, RosterEntryDTO> entries = new ConcurrentHashMap<>();
+        private final Map<String, Long> bookingIdsByQrCode = new ConcurrentHashMap<>();
+
+        private synchronized void put(RosterEntryDTO entry) {
+            RosterEntryDTO previous = entries.put(entry.getBookingId(), entry);
+            if (previous != null && previous.getQrCode() != null && !previous.getQrCode().equals(entry.getQrCode())) {
+                bookingIdsByQrCode.remove(previous.getQrCode());
+            }
+            if (entry.getQrCode() != null) {
+                bookingIdsByQrCode.put(entry.getQrCode(), entry.getBookingId());
+            }
+        }
+
+        private RosterEntryDTO findByQrCode(String qrCode) {
+            Long bookingId = bookingIdsByQrCode.get(qrCode);
+            return bookingId != null ? entries.get(bookingId) : null;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.cloudgym.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes slot availability and occupancy changes to subscribers of a gym over
+ * server-sent events. Each change is serialized once and the same payload is
+ * handed to every subscriber. Subscribers buffer at most one pending event per
+ * topic (a slot/date or the gym's occupancy), so a slow client skips intermediate
+ * states and only ever receives the latest value. A client that falls behind on
+ * more slots than that is sent a single resync event instead, telling it to reload
+ * availability, so no slot is left showing a stale value. A subscriber drains on at
+ * most one pooled thread at a time, so a client stalled on a socket write only holds
+ * its own thread; a send that outlasts the timeout drops the subscriber, which stops
+ * further events being queued for it.
+ */
+@Service
+public class GymEventStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GymEventStreamService.class);
+
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final int MAX_PENDING_TOPICS = 64;
+    private static final String SLOT_TOPIC_PREFIX = "slot:";
+    private static final String RESYNC_TOPIC = "resync";
+
+    @Value("${events.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "gym-event-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void stop() {
+        senders.shutdownNow();
+    }
+
+    public SseEmitter subscribe(Long gymId, Integer currentOccupancy) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber subscriber = new Subscriber(gymId, emitter);
+        subscribers.compute(gymId, (id, list) -> {
+            List<Subscriber> gymSubscribers = list != null ? list : new CopyOnWriteArrayList<>();
+            gymSubscribers.add(subscriber);
+            return gymSubscribers;
+        });
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        if (currentOccupancy != null) {
+            subscriber.offer(occupancyEvent(gymId, currentOccupancy));
+        }
+        return emitter;
+    }
+
+    public boolean hasSubscribers(Long gymId) {
+        List<Subscriber> gymSubscribers = subscribers.get(gymId);
+        return gymSubscribers != null && !gymSubscribers.isEmpty();
+    }
+
+    public void publishOccupancy(Long gymId, int currentOccupancy) {
+        if (hasSubscribers(gymId)) {
+            broadcast(gymId, occupancyEvent(gymId, currentOccupancy));
+        }
+    }
+
+    public void publishAvailability(Long gymId, Long slotId, LocalDate date, int availableSpots) {
+        if (hasSubscribers(gymId)) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("gymId", gymId);
+            data.put("slotId", slotId);
+            data.put("date", date.toString());
+            data.put("availableSpots", availableSpots);
+            broadcast(gymId, serialize("availability", SLOT_TOPIC_PREFIX + slotId + ":" + date, data));
+        }
+    }
+
+    @Scheduled(fixedDelay = 25000)
+    public void sendHeartbeats() {
+        SerializedEvent heartbeat = new SerializedEvent("heartbeat", "heartbeat", "{}");
+        subscribers.values().forEach(list -> list.forEach(s -> s.offer(heartbeat)));
+    }
+
+    // Only marks the subscriber closed: completing the emitter would wait on the stuck send
+    @Scheduled(fixedDelay = 5000)
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(list -> list.forEach(subscriber -> {
+            long started = subscriber.sendStartedAt;
+            if (started != 0 && now - started > TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs)) {
+                logger.debug("Dropping event stream subscriber of gym {} stalled on a send", subscriber.gymId);
+                subscriber.close();
+            }
+        }));
+    }
+
+    private SerializedEvent occupancyEvent(Long gymId, int currentOccupancy) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("gymId", gymId);
+        data.put("currentOccupancy", currentOccupancy);
+        return serialize("occupancy", "occupancy", data);
+    }
+
+    private void broadcast(Long gymId, SerializedEvent event) {
+        for (Subscriber subscriber : subscribers.getOrDefault(gymId, List.of())) {
+            subscriber.offer(event);
+        }
+    }
+
+    private SerializedEvent serialize(String name, String topic, Object data) {
+        try {
+            return new SerializedEvent(name, topic, objectMapper.writeValueAsString(data));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + name + " event", e);
+        }
+    }
+
+    private record SerializedEvent(String name, String topic, String json) {}
+
+    private final class Subscriber {
+        private final Long gymId;
+        private final SseEmitter emitter;
+        // Latest event per topic; replacing a pending value drops the intermediate state
+        private final LinkedHashMap<String, SerializedEvent> pending = new LinkedHashMap<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        // System.nanoTime() when the current send began, 0 while idle
+        private volatile long sendStartedAt;
+
+        private Subscriber(Long gymId, SseEmitter emitter) {
+            this.gymId = gymId;
+            this.emitter = emitter;
+        }
+
+        // The gym's list is dropped with its last subscriber
+        private void close() {
+            closed = true;
+            subscribers.computeIfPresent(gymId, (id, list) -> {
+                list.remove(this);
+                return list.isEmpty() ? null : list;
+            });
+        }
+
+        private void offer(SerializedEvent event) {
+            if (closed) {
+                return;
+            }
+            synchronized (pending) {
+                pending.remove(event.topic());
+                pending.put(event.topic(), event);
+                if (pending.size() > MAX_PENDING_TOPICS) {
+                    // Too far behind to track every slot: replace them with one resync
+                    pending.keySet().removeIf(topic -> topic.startsWith(SLOT_TOPIC_PREFIX));
+                    pending.putIfAbsent(RESYNC_TOPIC, new SerializedEvent(RESYNC_TOPIC, RESYNC_TOPIC,
+                            "{\"gymId\":" + gymId + "}"));
+                }
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!closed) {
+                    List<SerializedEvent> batch;
+                    synchronized (pending) {
+                        batch = new ArrayList<>(pending.values());
+                        pending.clear();
+                    }
+                    if (batch.isEmpty()) {
+                        break;
+                    }
+                    for (SerializedEvent event : batch) {
+                        sendStartedAt = System.nanoTime();
+                        emitter.send(SseEmitter.event().name(event.name()).data(event.json(), MediaType.APPLICATION_JSON));
+                        sendStartedAt = 0;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+                emitter.completeWithError(e);
+                logger.debug("Dropping event stream subscriber: {}", e.getMessage());
+            } finally {
+                sendStartedAt = 0;
+                draining.set(false);
+            }
+
+            boolean hasMore;
+            synchronized (pending) {
+                hasMore = !pending.isEmpty();
+            }
+            if (hasMore && !closed && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+    }
+}
@@ -14,36 +14,43 @@ public class GymService {
     @Autowired
     private GymRepository gymRepository;
 
+    @Autowired
+    private OccupancyService occupancyService;
+
     public List<GymDTO> getNearbyGyms(Double latitude, Double longitude, Double radiusInKm) {
         List<Object[]> results = gymRepository.findNearbyGyms(latitude, longitude, radiusInKm);
 
         // Use the GymDTO(Object[] result) constructor to handle all parsing and mapping
         return results.stream()
             .map(GymDTO::new)
+            .map(occupancyService::applyTo)
             .toList();
     }
 
     // ...other methods unchanged...
 
     public Optional<GymDTO> getGymById(Long id) {
-        return gymRepository.findById(id).map(GymDTO::new);
+        return gymRepository.findById(id).map(GymDTO::new).map(occupancyService::applyTo);
     }
 
     public List<GymDTO> searchGyms(String query) {
         return gymRepository.searchGyms(query).stream()
                 .map(GymDTO::new)
+                .map(occupancyService::applyTo)
                 .toList();
     }
 
     public List<GymDTO> getGymsByRating(Double minRating) {
         return gymRepository.findByRatingGreaterThanEqual(minRating).stream()
                 .map(GymDTO::new)
+                .map(occupancyService::applyTo)
                 .toList();
     }
 
     public List<GymDTO> getAllGyms() {
         return gymRepository.findAll().stream()
                 .map(GymDTO::new)
+                .map(occupancyService::applyTo)
                 .toList();
     }
 
@@ -86,7 +93,7 @@ public class GymService {
         gym.setImages(gymDTO.getImages());
         gym.setOperatingHours(gymDTO.getOperatingHours());
         gym.setCapacity(gymDTO.getCapacity());
-        gym.setCurrentOccupancy(gymDTO.getCurrentOccupancy());
+        // Occupancy is maintained live by OccupancyService from check-ins
         gym.setPriceRange(gymDTO.getPriceRange());
         gym.setDescription(gymDTO.getDescription());
         
@@ -96,7 +103,7 @@ public class GymService {
         }
 
         Gym updatedGym = gymRepository.save(gym);
-        return new GymDTO(updatedGym);
+        return occupancyService.applyTo(new GymDTO(updatedGym));
     }
 
     public void deleteGym(Long id) {
@@ -0,0 +1,199 @@
+package com.cloudgym.service;
+
+import com.cloudgym.entity.IdempotencyRecord;
+import com.cloudgym.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Makes POST endpoints safe to retry with an {@code Idempotency-Key} header. The
+ * first request with a key claims it through the unique constraint on
+ * idempotency_keys, runs, and stores its successful response; retries get that
+ * response back without running the action again. Completed responses are also
+ * kept in a bounded in-memory LRU cache, so most retries never touch the database.
+ * Failed requests release their claim, so the client can retry them for real.
+ * A claim left in progress by a crashed or stuck request is taken over by a retry
+ * with the same body once it has not been updated for the lease period.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    @Value("${idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private int ttlHours;
+
+    @Value("${idempotency.lease-minutes:5}")
+    private int leaseMinutes;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Map<CacheKey, Replay> completed;
+
+    @PostConstruct
+    public void init() {
+        completed = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, Replay> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Runs {@code action} once per user, scope and key. Requests without a key run
+     * unconditionally. A key reused with a different request body is rejected with
+     * 422, and a retry arriving while the first request is still running gets 409
+     * until the first request's lease expires.
+     */
+    public <T> ResponseEntity<T> execute(Long userId, String scope, String key, Object request,
+                                         TypeReference<T> responseType, Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        CacheKey cacheKey = new CacheKey(userId, scope, key);
+        String requestHash = hash(request);
+        Replay replay = completed.get(cacheKey);
+        if (replay != null && replay.expiresAt().isAfter(LocalDateTime.now())) {
+            return replay(replay, requestHash);
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Integer claimed = transaction.execute(status ->
+                idempotencyRecordRepository.claim(userId, scope, key, requestHash, LocalDateTime.now()));
+        if (claimed == null || claimed == 0) {
+            claimed = transaction.execute(status -> idempotencyRecordRepository.reclaim(userId, scope, key,
+                    requestHash, LocalDateTime.now().minusMinutes(leaseMinutes), LocalDateTime.now()));
+        }
+        if (claimed == null || claimed == 0) {
+            return replayStored(cacheKey, requestHash, responseType);
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            transaction.executeWithoutResult(status -> idempotencyRecordRepository.release(userId, scope, key));
+            throw e;
+        }
+
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            transaction.executeWithoutResult(status -> idempotencyRecordRepository.release(userId, scope, key));
+            return response;
+        }
+
+        // If storing the response fails the claim stays in progress, so retries get
+        // 409 until the lease runs out instead of repeating the action right away
+        try {
+            String body = objectMapper.writeValueAsString(response.getBody());
+            int statusCode = response.getStatusCode().value();
+            transaction.executeWithoutResult(status ->
+                    idempotencyRecordRepository.complete(userId, scope, key, statusCode, body, LocalDateTime.now()));
+            completed.put(cacheKey, new Replay(requestHash, statusCode, response.getBody(),
+                    LocalDateTime.now().plusHours(ttlHours)));
+        } catch (Exception e) {
+            logger.warn("Failed to store response for idempotency key {} on {}", key, scope, e);
+        }
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime before = LocalDateTime.now().minusHours(ttlHours);
+        Integer deleted = new TransactionTemplate(transactionManager).execute(status ->
+                idempotencyRecordRepository.deleteCreatedBefore(before));
+        synchronized (completed) {
+            completed.values().removeIf(replay -> !replay.expiresAt().isAfter(LocalDateTime.now()));
+        }
+        if (deleted != null && deleted > 0) {
+            logger.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private <T> ResponseEntity<T> replayStored(CacheKey cacheKey, String requestHash, TypeReference<T> responseType) {
+        Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findByKey(
+                cacheKey.userId(), cacheKey.scope(), cacheKey.key());
+        if (stored.isEmpty() || stored.get().getStatus() != IdempotencyRecord.Status.COMPLETED) {
+            // Still running, or it failed and released the key a moment ago
+            if (stored.isPresent() && !stored.get().getRequestHash().equals(requestHash)) {
+                return ResponseEntity.unprocessableEntity().build();
+            }
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        IdempotencyRecord record = stored.get();
+        try {
+            T body = objectMapper.readValue(record.getResponseBody(), responseType);
+            Replay replay = new Replay(record.getRequestHash(), record.getResponseStatus(), body,
+                    record.getCreatedAt().plusHours(ttlHours));
+            completed.put(cacheKey, replay);
+            return replay(replay, requestHash);
+        } catch (JsonProcessingException e) {
+            logger.error("Stored response for idempotency key {} on {} is unreadable", cacheKey.key(), cacheKey.scope(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> replay(Replay replay, String requestHash) {
+        if (!replay.requestHash().equals(requestHash)) {
+            return ResponseEntity.unprocessableEntity().build();
+        }
+        return ResponseEntity.status(replay.status()).body((T) replay.body());
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(digest.digest(bytes));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new RuntimeException("Failed to hash request", e);
+        }
+    }
+
+    private record CacheKey(Long userId, String scope, String key) {}
+
+    private record Replay(String requestHash, int status, Object body, LocalDateTime expiresAt) {}
+}
@@ -0,0 +1,98 @@
+package com.cloudgym.service;
+
+import com.cloudgym.entity.Booking;
+import com.cloudgym.entity.JobCheckpoint;
+import com.cloudgym.repository.BookingRepository;
+import com.cloudgym.repository.JobCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Marks confirmed bookings from past days that were never checked into as NO_SHOW.
+ * Each booking date is swept with repeated set-based UPDATE ... LIMIT statements,
+ * each committed on its own, and the last fully swept date is checkpointed so a
+ * restarted sweep resumes where it stopped. Re-running a date is harmless because
+ * the update only matches rows that are still CONFIRMED, so every run also re-sweeps
+ * the last few checkpointed days to catch bookings confirmed late, for example by a
+ * delayed payment callback.
+ */
+@Service
+public class NoShowSweeperService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NoShowSweeperService.class);
+
+    public static final String JOB_NAME = "no-show-sweeper";
+
+    private static final String SWEEP_SQL =
+            "UPDATE bookings SET status = 'NO_SHOW', updated_at = ? " +
+            "WHERE booking_date = ? AND status = 'CONFIRMED' AND check_in_time IS NULL LIMIT ?";
+
+    @Value("${booking.no-show.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${booking.no-show.rescan-days:3}")
+    private int rescanDays;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserBookingViewService userBookingViewService;
+
+    @Scheduled(cron = "${booking.no-show.cron:0 15 * * * *}")
+    public void sweep() {
+        LocalDate today = LocalDate.now();
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(JOB_NAME)
+                .orElseGet(() -> new JobCheckpoint(JOB_NAME, null));
+
+        LocalDate processedThrough = checkpoint.getProcessedThrough();
+        LocalDate from = processedThrough != null
+                ? processedThrough.plusDays(1).minusDays(rescanDays)
+                : bookingRepository.findEarliestUnattendedDateBefore(today);
+        if (from == null || !from.isBefore(today)) {
+            return;
+        }
+
+        int total = 0;
+        for (LocalDate date = from; date.isBefore(today); date = date.plusDays(1)) {
+            int swept = sweepDate(date);
+            if (swept > 0) {
+                userBookingViewService.invalidateForBookingsOn(date, Booking.BookingStatus.NO_SHOW);
+            }
+            if (processedThrough == null || date.isAfter(processedThrough)) {
+                checkpoint.setProcessedThrough(date);
+                checkpoint = jobCheckpointRepository.save(checkpoint);
+            }
+            total += swept;
+        }
+        logger.info("No-show sweep marked {} bookings from {} to {}", total, from, today.minusDays(1));
+    }
+
+    private int sweepDate(LocalDate date) {
+        int swept = 0;
+        int updated;
+        do {
+            updated = jdbcTemplate.update(SWEEP_SQL, Timestamp.valueOf(LocalDateTime.now()), Date.valueOf(date), chunkSize);
+            swept += updated;
+        } while (updated == chunkSize);
+        if (swept > 0) {
+            logger.debug("Marked {} no-shows for {}", swept, date);
+        }
+        return swept;
+    }
+}
@@ -0,0 +1,20 @@
+package com.cloudgym.service;
+
+import com.cloudgym.entity.Booking;
+import com.cloudgym.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+@Service
+public class NotificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+
+    public void notifyWaitlistPromotion(User user, Booking booking) {
+        // In a real implementation, you would send an email or push notification here
+        // For now, we'll simulate the delivery by logging it
+        logger.info("Notifying user {} ({}) that waitlist entry was promoted to booking {} on {}",
+                   user.getId(), user.getEmail(), booking.getId(), booking.getBookingDate());
+    }
+}
@@ -0,0 +1,168 @@
+package com.cloudgym.service;
+
+import com.cloudgym.dto.OccupancyHistoryDTO;
+import com.cloudgym.dto.OccupancyProfileDTO;
+import com.cloudgym.entity.GymOccupancyProfile;
+import com.cloudgym.repository.GymOccupancyProfileRepository;
+import com.cloudgym.util.HourOfWeekProfile;
+import com.cloudgym.util.OccupancyRingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Occupancy history per gym. The live count is sampled once a minute into a fixed-size
+ * ring buffer (the last day by default), and each completed hour is folded into a
+ * rolling hour-of-week profile that is persisted as a single compact row per gym.
+ */
+@Service
+public class OccupancyHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyHistoryService.class);
+
+    @Value("${occupancy.history.minutes:1440}")
+    private int historyMinutes;
+
+    @Value("${occupancy.profile.window-weeks:8}")
+    private int windowWeeks;
+
+    @Autowired
+    private OccupancyService occupancyService;
+
+    @Autowired
+    private GymOccupancyProfileRepository profileRepository;
+
+    private final Map<Long, OccupancyRingBuffer> buffers = new ConcurrentHashMap<>();
+    private final Map<Long, HourOfWeekProfile> profiles = new ConcurrentHashMap<>();
+    private final Map<Long, HourAccumulator> currentHour = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadProfiles() {
+        for (GymOccupancyProfile row : profileRepository.findAll()) {
+            profiles.put(row.getGymId(), HourOfWeekProfile.decode(row.getProfile(), windowWeeks));
+        }
+        logger.info("Loaded occupancy profiles for {} gyms", profiles.size());
+    }
+
+    @Scheduled(cron = "${occupancy.history.sample-cron:0 * * * * *}")
+    public void sample() {
+        int epochMinute = (int) (Instant.now().getEpochSecond() / 60);
+        int hourOfWeek = HourOfWeekProfile.hourOfWeek(toLocal(epochMinute));
+        for (Long gymId : occupancyService.getTrackedGymIds()) {
+            Integer occupancy = occupancyService.getOccupancy(gymId);
+            if (occupancy == null) {
+                continue;
+            }
+            buffers.computeIfAbsent(gymId, id -> new OccupancyRingBuffer(historyMinutes))
+                    .record(epochMinute, occupancy);
+
+            HourAccumulator accumulator = currentHour.get(gymId);
+            if (accumulator != null && accumulator.hourOfWeek != hourOfWeek) {
+                profileFor(gymId).add(accumulator.hourOfWeek, (double) accumulator.sum / accumulator.count);
+                dirty.add(gymId);
+                accumulator = null;
+            }
+            if (accumulator == null) {
+                accumulator = new HourAccumulator(hourOfWeek);
+                currentHour.put(gymId, accumulator);
+            }
+            accumulator.sum += occupancy;
+            accumulator.count++;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${occupancy.profile.persist-interval-ms:900000}")
+    public void persistProfiles() {
+        List<GymOccupancyProfile> rows = new ArrayList<>();
+        for (Long gymId : dirty) {
+            dirty.remove(gymId);
+            rows.add(new GymOccupancyProfile(gymId, profileFor(gymId).encode()));
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            profileRepository.saveAll(rows);
+        } catch (DataAccessException e) {
+            rows.forEach(row -> dirty.add(row.getGymId()));
+            logger.warn("Could not persist occupancy profiles for {} gyms, will retry: {}", rows.size(), e.getMessage());
+        }
+    }
+
+    public OccupancyHistoryDTO getHistory(Long gymId, int minutes) {
+        OccupancyRingBuffer buffer = buffers.get(gymId);
+        if (buffer == null) {
+            return new OccupancyHistoryDTO(gymId, null, 1, List.of());
+        }
+        int[] recent = buffer.recent(minutes);
+        List<Integer> samples = new ArrayList<>(recent.length);
+        for (int value : recent) {
+            samples.add(value >= 0 ? value : null);
+        }
+        LocalDateTime from = toLocal(buffer.getLatestMinute() - recent.length + 1);
+        return new OccupancyHistoryDTO(gymId, from, 1, samples);
+    }
+
+    public List<OccupancyProfileDTO> getProfile(Long gymId) {
+        HourOfWeekProfile profile = profiles.get(gymId);
+        List<OccupancyProfileDTO> result = new ArrayList<>(HourOfWeekProfile.HOURS_PER_WEEK);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            for (int hour = 0; hour < 24; hour++) {
+                result.add(toProfileDTO(gymId, profile, day, hour));
+            }
+        }
+        return result;
+    }
+
+    public OccupancyProfileDTO getProfile(Long gymId, DayOfWeek day, int hour) {
+        return toProfileDTO(gymId, profiles.get(gymId), day, hour);
+    }
+
+    /** Returns the mean occupancy for the hour-of-week, or null if it has no samples yet. */
+    public Double getExpectedOccupancy(Long gymId, DayOfWeek day, int hour) {
+        HourOfWeekProfile profile = profiles.get(gymId);
+        return profile != null ? profile.mean(HourOfWeekProfile.hourOfWeek(day, hour)) : null;
+    }
+
+    private OccupancyProfileDTO toProfileDTO(Long gymId, HourOfWeekProfile profile, DayOfWeek day, int hour) {
+        int index = HourOfWeekProfile.hourOfWeek(day, hour);
+        if (profile == null) {
+            return new OccupancyProfileDTO(gymId, day, hour, null, 0);
+        }
+        return new OccupancyProfileDTO(gymId, day, hour, profile.mean(index), profile.samples(index));
+    }
+
+    private HourOfWeekProfile profileFor(Long gymId) {
+        return profiles.computeIfAbsent(gymId, id -> new HourOfWeekProfile(windowWeeks));
+    }
+
+    private LocalDateTime toLocal(int epochMinute) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochMinute * 60L), ZoneId.systemDefault());
+    }
+
+    private static class HourAccumulator {
+        private final int hourOfWeek;
+        private long sum;
+        private int count;
+
+        private HourAccumulator(int hourOfWeek) {
+            this.hourOfWeek = hourOfWeek;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.cloudgym.service;
+
+import com.cloudgym.dto.GymDTO;
+import com.cloudgym.repository.BookingRepository;
+import com.cloudgym.repository.GymRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live gym occupancy maintained from check-in and check-out events. Counters are
+ * per-gym atomics, so reads and updates never block; the gyms.current_occupancy
+ * column is only a periodically flushed copy. Members who never check out are
+ * dropped from the count once they have been inside longer than the maximum stay.
+ */
+@Service
+public class OccupancyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyService.class);
+
+    private static final String FLUSH_SQL = "UPDATE gyms SET current_occupancy = ? WHERE id = ?";
+
+    @Value("${occupancy.max-stay-minutes:180}")
+    private long maxStayMinutes;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private GymRepository gymRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private GymEventStreamService gymEventStreamService;
+
+    private final Map<Long, AtomicInteger> counts = new ConcurrentHashMap<>();
+    private final Map<Long, Presence> present = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOccupancy() {
+        for (Long gymId : gymRepository.findAllIds()) {
+            counts.put(gymId, new AtomicInteger());
+            dirty.add(gymId);
+        }
+        LocalDateTime since = LocalDateTime.now().minusMinutes(maxStayMinutes);
+        for (Object[] row : bookingRepository.findPresentSince(since)) {
+            recordCheckIn((Long) row[0], (Long) row[1], (LocalDateTime) row[2]);
+        }
+        logger.info("Loaded live occupancy for {} gyms with {} members present", counts.size(), present.size());
+        flush();
+    }
+
+    public void recordCheckIn(Long bookingId, Long gymId, LocalDateTime checkInTime) {
+        if (present.putIfAbsent(bookingId, new Presence(gymId, checkInTime)) == null) {
+            int occupancy = counterFor(gymId).incrementAndGet();
+            dirty.add(gymId);
+            gymEventStreamService.publishOccupancy(gymId, occupancy);
+        }
+    }
+
+    public void recordCheckOut(Long bookingId) {
+        Presence presence = present.remove(bookingId);
+        if (presence != null) {
+            leave(presence.gymId());
+        }
+    }
+
+    /** Returns the live count, or null for a gym that has not been seen yet. */
+    public Integer getOccupancy(Long gymId) {
+        AtomicInteger count = counts.get(gymId);
+        return count != null ? count.get() : null;
+    }
+
+    public Set<Long> getTrackedGymIds() {
+        return counts.keySet();
+    }
+
+    public GymDTO applyTo(GymDTO gym) {
+        Integer occupancy = getOccupancy(gym.getId());
+        if (occupancy != null) {
+            gym.setCurrentOccupancy(occupancy);
+        }
+        return gym;
+    }
+
+    @Scheduled(fixedDelayString = "${occupancy.decay-interval-ms:300000}")
+    public void decayStalePresence() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(maxStayMinutes);
+        int decayed = 0;
+        for (Map.Entry<Long, Presence> entry : present.entrySet()) {
+            if (entry.getValue().checkInTime().isBefore(cutoff) && present.remove(entry.getKey(), entry.getValue())) {
+                leave(entry.getValue().gymId());
+                decayed++;
+            }
+        }
+        if (decayed > 0) {
+            logger.info("Decayed {} members who never checked out", decayed);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${occupancy.flush-interval-ms:15000}")
+    public void flush() {
+        List<Object[]> updates = new ArrayList<>();
+        for (Long gymId : dirty) {
+            dirty.remove(gymId);
+            updates.add(new Object[] { counterFor(gymId).get(), gymId });
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, updates);
+        } catch (DataAccessException e) {
+            updates.forEach(update -> dirty.add((Long) update[1]));
+            logger.warn("Could not flush occupancy for {} gyms, will retry: {}", updates.size(), e.getMessage());
+        }
+    }
+
+    private void leave(Long gymId) {
+        int occupancy = counterFor(gymId).updateAndGet(count -> Math.max(0, count - 1));
+        dirty.add(gymId);
+        gymEventStreamService.publishOccupancy(gymId, occupancy);
+    }
+
+    private AtomicInteger counterFor(Long gymId) {
+        return counts.computeIfAbsent(gymId, id -> new AtomicInteger());
+    }
+
+    private record Presence(Long gymId, LocalDateTime checkInTime) {}
+}
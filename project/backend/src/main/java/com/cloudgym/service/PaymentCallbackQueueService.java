@@ -0,0 +1,248 @@
+package com.cloudgym.service;
+
+import com.cloudgym.entity.PaymentCallback;
+import com.cloudgym.repository.PaymentCallbackRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decouples gateway callbacks from their processing. A callback is acknowledged as
+ * soon as it is appended to payment_callback_queue; a poller then hands due rows to
+ * a fixed set of single-threaded workers, striped by payment id. Only the oldest
+ * unfinished callback of a payment is ever due, so callbacks for one payment are
+ * applied in arrival order. Failures are retried with exponential backoff and moved
+ * to DEAD after the last attempt, where they stay for manual inspection. A dead
+ * callback blocks every later callback of the same payment until an admin retries
+ * it; the number of callbacks held back this way is reported as "blocked".
+ * Callbacks whose worker died mid-flight are re-queued once their PROCESSING lease
+ * runs out, so other instances' in-flight callbacks are left alone.
+ */
+@Service
+public class PaymentCallbackQueueService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentCallbackQueueService.class);
+
+    private static final String CLAIM_SQL =
+            "UPDATE payment_callback_queue SET status = 'PROCESSING', updated_at = ? WHERE id = ? AND status = 'PENDING'";
+
+    private static final String DONE_SQL =
+            "UPDATE payment_callback_queue SET status = 'DONE', attempts = attempts + 1, processed_at = ?, " +
+            "last_error = NULL, updated_at = ? WHERE id = ?";
+
+    private static final String RETRY_SQL =
+            "UPDATE payment_callback_queue SET status = ?, attempts = ?, next_attempt_at = ?, last_error = ?, " +
+            "updated_at = ? WHERE id = ?";
+
+    private static final String UNCLAIM_SQL =
+            "UPDATE payment_callback_queue SET status = 'PENDING', updated_at = ? WHERE id = ? AND status = 'PROCESSING'";
+
+    private static final String RECOVER_SQL =
+            "UPDATE payment_callback_queue SET status = 'PENDING', updated_at = ? " +
+            "WHERE status = 'PROCESSING' AND updated_at < ?";
+
+    private static final String RETRY_DEAD_SQL =
+            "UPDATE payment_callback_queue SET status = 'PENDING', attempts = 0, next_attempt_at = ?, updated_at = ? " +
+            "WHERE id = ? AND status = 'DEAD'";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM payment_callback_queue WHERE status = 'DONE' AND processed_at < ? LIMIT ?";
+
+    private static final int PURGE_CHUNK_SIZE = 5000;
+
+    @Value("${payment.callback.workers:4}")
+    private int workerCount;
+
+    @Value("${payment.callback.worker-queue-size:100}")
+    private int workerQueueSize;
+
+    @Value("${payment.callback.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${payment.callback.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${payment.callback.lease-minutes:10}")
+    private int leaseMinutes;
+
+    @Autowired
+    private PaymentCallbackRepository paymentCallbackRepository;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ExecutorService[] workers;
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        workers = new ExecutorService[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            String name = "payment-callback-" + i;
+            workers[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(workerQueueSize), r -> {
+                        Thread thread = new Thread(r, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (ExecutorService worker : workers) {
+            worker.shutdown();
+        }
+    }
+
+    /** Callbacks in PROCESSING for longer than the lease were never finished, so they go back to PENDING. */
+    @Scheduled(fixedDelayString = "${payment.callback.recover-interval-ms:60000}")
+    public void recoverExpiredLeases() {
+        LocalDateTime now = LocalDateTime.now();
+        int recovered = jdbcTemplate.update(RECOVER_SQL, Timestamp.valueOf(now),
+                Timestamp.valueOf(now.minusMinutes(leaseMinutes)));
+        if (recovered > 0) {
+            logger.info("Re-queued {} payment callbacks left in flight", recovered);
+        }
+    }
+
+    /** Puts a dead callback back in the queue with a fresh set of attempts, releasing the ones behind it. */
+    public boolean retryDead(Long callbackId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        boolean requeued = jdbcTemplate.update(RETRY_DEAD_SQL, now, now, callbackId) > 0;
+        if (requeued) {
+            logger.info("Re-queued dead payment callback {}", callbackId);
+        }
+        return requeued;
+    }
+
+    /** Durably appends a callback; the caller can acknowledge the gateway once this returns. */
+    public Long enqueue(String paymentId, Map<String, Object> callbackData) {
+        if (paymentId == null || paymentId.isBlank()) {
+            throw new RuntimeException("Payment ID is required");
+        }
+        try {
+            PaymentCallback callback = new PaymentCallback(paymentId, objectMapper.writeValueAsString(callbackData));
+            return paymentCallbackRepository.save(callback).getId();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid callback payload", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.callback.poll-interval-ms:500}")
+    public void dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<PaymentCallback> due = paymentCallbackRepository.findDue(now,
+                PageRequest.of(0, workerCount * workerQueueSize / 2));
+        for (PaymentCallback callback : due) {
+            if (jdbcTemplate.update(CLAIM_SQL, Timestamp.valueOf(now), callback.getId()) == 0) {
+                continue;
+            }
+            ExecutorService worker = workers[Math.floorMod(callback.getPaymentId().hashCode(), workers.length)];
+            try {
+                worker.execute(() -> process(callback));
+            } catch (RejectedExecutionException e) {
+                // The stripe is saturated; leave the rest for the next poll
+                jdbcTemplate.update(UNCLAIM_SQL, Timestamp.valueOf(LocalDateTime.now()), callback.getId());
+            }
+        }
+    }
+
+    private void process(PaymentCallback callback) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            Map<String, Object> callbackData = objectMapper.readValue(callback.getPayload(),
+                    new TypeReference<Map<String, Object>>() {});
+            paymentService.processPaymentCallback(callback.getPaymentId(), callbackData);
+            Timestamp processedAt = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.update(DONE_SQL, processedAt, processedAt, callback.getId());
+            processed.incrementAndGet();
+        } catch (Exception e) {
+            int attempts = callback.getAttempts() + 1;
+            boolean dead = attempts >= maxAttempts;
+            // 2, 4, 8 ... seconds, capped at ten minutes
+            LocalDateTime nextAttemptAt = now.plusSeconds(Math.min(600, 1L << Math.min(attempts, 20)));
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            jdbcTemplate.update(RETRY_SQL, dead ? PaymentCallback.Status.DEAD.name() : PaymentCallback.Status.PENDING.name(),
+                    attempts, Timestamp.valueOf(nextAttemptAt), error.length() > 1000 ? error.substring(0, 1000) : error,
+                    Timestamp.valueOf(now), callback.getId());
+            if (dead) {
+                deadLettered.incrementAndGet();
+                logger.error("Payment callback {} for payment {} dead-lettered after {} attempts: {}",
+                            callback.getId(), callback.getPaymentId(), attempts, error);
+            } else {
+                retried.incrementAndGet();
+                logger.warn("Payment callback {} for payment {} failed (attempt {}), retrying at {}: {}",
+                           callback.getId(), callback.getPaymentId(), attempts, nextAttemptAt, error);
+            }
+        }
+    }
+
+    /** Queue depth, lag of the oldest unfinished callback, dead and blocked callbacks and cumulative worker counters. */
+    public Map<String, Object> getStats() {
+        Object[] backlog = paymentCallbackRepository.findBacklog().get(0);
+        LocalDateTime oldest = (LocalDateTime) backlog[1];
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("depth", backlog[0]);
+        stats.put("lagSeconds", oldest != null ? Duration.between(oldest, LocalDateTime.now()).toSeconds() : 0);
+        stats.put("dead", paymentCallbackRepository.countByStatus(PaymentCallback.Status.DEAD));
+        stats.put("blocked", paymentCallbackRepository.countBlockedByDead());
+        stats.put("processed", processed.get());
+        stats.put("retried", retried.get());
+        stats.put("deadLettered", deadLettered.get());
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${payment.callback.metrics-interval-ms:60000}")
+    public void reportMetrics() {
+        Map<String, Object> stats = getStats();
+        if (((Number) stats.get("depth")).longValue() > 0 || deadLettered.get() > 0) {
+            logger.info("Payment callback queue: {}", stats);
+        }
+    }
+
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purgeProcessed() {
+        Timestamp before = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_SQL, before, PURGE_CHUNK_SIZE);
+            purged += deleted;
+        } while (deleted == PURGE_CHUNK_SIZE);
+        if (purged > 0) {
+            logger.info("Purged {} processed payment callbacks", purged);
+        }
+    }
+}
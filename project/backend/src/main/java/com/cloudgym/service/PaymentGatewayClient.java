@@ -0,0 +1,18 @@
+package com.cloudgym.service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Client for the external payment gateway. Implementations make the remote call
+ * directly; timeouts, concurrency limits and circuit breaking are applied around
+ * them by {@link PaymentGatewayService}.
+ */
+public interface PaymentGatewayClient {
+
+    /**
+     * Registers a payment with the gateway and returns what the client needs to
+     * complete it: at least paymentId, amount, currency, redirectUrl and status.
+     */
+    Map<String, Object> initiate(String paymentId, BigDecimal amount, String currency);
+}
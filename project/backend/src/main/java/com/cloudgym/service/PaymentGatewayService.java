@@ -0,0 +1,143 @@
+package com.cloudgym.service;
+
+import com.cloudgym.util.CircuitBreaker;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Calls the {@link PaymentGatewayClient} behind three guards, so a slow or failing
+ * gateway costs request threads a bounded wait instead of holding them:
+ * a bulkhead caps concurrent gateway calls and turns the excess away after a
+ * short wait, each call runs on the bulkhead's own threads with a timeout, and a
+ * circuit breaker fails calls fast while the gateway keeps failing.
+ * Callers must not hold a database transaction across {@link #initiate}.
+ */
+@Service
+public class PaymentGatewayService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentGatewayService.class);
+
+    @Value("${payment.gateway.max-concurrent-calls:10}")
+    private int maxConcurrentCalls;
+
+    @Value("${payment.gateway.bulkhead-wait-ms:100}")
+    private long bulkheadWaitMs;
+
+    @Value("${payment.gateway.timeout-ms:3000}")
+    private long timeoutMs;
+
+    @Value("${payment.gateway.breaker.failure-rate:0.5}")
+    private double failureRateThreshold;
+
+    @Value("${payment.gateway.breaker.window-size:20}")
+    private int windowSize;
+
+    @Value("${payment.gateway.breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${payment.gateway.breaker.open-ms:30000}")
+    private long openMs;
+
+    @Autowired
+    private PaymentGatewayClient client;
+
+    private Semaphore bulkhead;
+    private ThreadPoolExecutor executor;
+    private CircuitBreaker circuitBreaker;
+
+    @PostConstruct
+    public void start() {
+        bulkhead = new Semaphore(maxConcurrentCalls);
+        // The bulkhead admits at most maxConcurrentCalls tasks, so the pool never rejects
+        executor = new ThreadPoolExecutor(maxConcurrentCalls, maxConcurrentCalls, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), r -> {
+                    Thread thread = new Thread(r, "payment-gateway");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        circuitBreaker = new CircuitBreaker(failureRateThreshold, windowSize, minimumCalls, openMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    public Map<String, Object> initiate(String paymentId, BigDecimal amount, String currency) {
+        boolean admitted;
+        try {
+            admitted = bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for the payment gateway");
+        }
+        if (!admitted) {
+            logger.warn("Payment gateway bulkhead full, rejecting payment {}", paymentId);
+            throw new RuntimeException("Payment gateway is busy, please retry");
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            bulkhead.release();
+            throw new RuntimeException("Payment gateway is unavailable, please retry later");
+        }
+
+        // The permit is released when the call really ends, not when we stop waiting for it
+        Future<Map<String, Object>> call;
+        try {
+            call = executor.submit(() -> {
+                try {
+                    return client.initiate(paymentId, amount, currency);
+                } finally {
+                    bulkhead.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            circuitBreaker.onFailure();
+            throw e;
+        }
+
+        try {
+            Map<String, Object> response = call.get(timeoutMs, TimeUnit.MILLISECONDS);
+            circuitBreaker.onSuccess();
+            return response;
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            circuitBreaker.onFailure();
+            logger.warn("Payment gateway timed out after {} ms for payment {}", timeoutMs, paymentId);
+            throw new RuntimeException("Payment gateway timed out");
+        } catch (ExecutionException e) {
+            circuitBreaker.onFailure();
+            logger.warn("Payment gateway failed for payment {}: {}", paymentId, e.getCause().getMessage());
+            throw new RuntimeException("Payment gateway error: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            circuitBreaker.onFailure();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for the payment gateway");
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("circuitState", circuitBreaker.getState().name());
+        stats.put("inFlight", maxConcurrentCalls - bulkhead.availablePermits());
+        stats.put("maxConcurrentCalls", maxConcurrentCalls);
+        return stats;
+    }
+}
@@ -1,5 +1,7 @@
 package com.cloudgym.service;
 
+import com.cloudgym.dto.BookingDTO;
+import com.cloudgym.dto.CursorPageDTO;
 import com.cloudgym.dto.PaymentDTO;
 import com.cloudgym.entity.Booking;
 import com.cloudgym.entity.Payment;
@@ -9,23 +11,49 @@ import com.cloudgym.repository.BookingRepository;
 import com.cloudgym.repository.PaymentRepository;
 import com.cloudgym.repository.SubscriptionRepository;
 import com.cloudgym.repository.UserRepository;
+import com.cloudgym.security.QrTokenProvider;
+import com.cloudgym.util.KeysetCursor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @Transactional
 public class PaymentService {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
+
+    private static final String CURRENCY = "USD";
+
+    private static final String FAIL_PAYMENT_SQL =
+            "UPDATE payments SET status = 'FAILED', updated_at = ? WHERE id = ? AND status = 'PENDING'";
+
+    private static final String FAIL_PENDING_SQL =
+            "UPDATE payments SET status = 'FAILED', updated_at = ? " +
+            "WHERE status = 'PENDING' AND created_at < ? LIMIT ?";
     
     @Autowired
     private PaymentRepository paymentRepository;
@@ -42,45 +70,95 @@ public class PaymentService {
     @Autowired
     private SubscriptionService subscriptionService;
 
-    public List<PaymentDTO> getUserPayments(Long userId) {
+    @Autowired
+    private BookingHoldService bookingHoldService;
+
+    @Autowired
+    private QrTokenProvider qrTokenProvider;
+
+    @Autowired
+    private UserBookingViewService userBookingViewService;
+
+    @Autowired
+    private FrontDeskRosterService frontDeskRosterService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PaymentGatewayService paymentGatewayService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${payment.cleanup.pending-timeout-minutes:60}")
+    private int pendingTimeoutMinutes;
+
+    @Value("${payment.cleanup.chunk-size:5000}")
+    private int cleanupChunkSize;
+
+    // Cleanup counters since startup, reported with each run and by getCleanupStats
+    private final AtomicLong cleanupRuns = new AtomicLong();
+    private final AtomicLong cleanupRowsFailed = new AtomicLong();
+    private volatile int lastCleanupRows;
+    private volatile long lastCleanupDurationMs;
+    private volatile LocalDateTime lastCleanupAt;
+
+    public CursorPageDTO<PaymentDTO> getUserPayments(Long userId, String cursor, Integer limit) {
         logger.info("Getting payments for user ID: {}", userId);
         try {
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            if (!userRepository.existsById(userId)) {
+                throw new RuntimeException("User not found");
+            }
             
-            List<Payment> payments = paymentRepository.findByUserOrderByCreatedAtDesc(user);
-            logger.info("Found {} payments for user {}", payments.size(), userId);
+            int pageSize = KeysetCursor.pageSize(limit);
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            PageRequest page = PageRequest.of(0, pageSize + 1);
+            List<Payment> payments = after == null
+                    ? paymentRepository.findHistoryByUserId(userId, page)
+                    : paymentRepository.findHistoryByUserIdBefore(userId, after.createdAt(), after.id(), page);
+            logger.info("Found {} payments for user {}", Math.min(payments.size(), pageSize), userId);
             
-            return payments.stream()
-                    .map(PaymentDTO::new)
-                    .toList();
+            return CursorPageDTO.of(payments, pageSize,
+                    payment -> new KeysetCursor(payment.getCreatedAt(), payment.getId()),
+                    rows -> rows.stream().map(PaymentDTO::new).toList());
         } catch (Exception e) {
             logger.error("Error getting user payments for user {}: ", userId, e);
             throw e;
         }
     }
 
-    @Transactional
+    /**
+     * Creates the subscription and its payment in a short transaction and only then
+     * calls the gateway, so no database connection is held while it responds.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> initiateSubscriptionPayment(Long userId, Subscription.SubscriptionType type) {
         logger.info("Initiating subscription payment for user {} with type {}", userId, type);
         try {
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            // Create subscription
-            Subscription subscription = new Subscription(user, type, BigDecimal.valueOf(type.getPrice()));
-            subscription.setStatus(Subscription.SubscriptionStatus.PENDING);
-            Subscription savedSubscription = subscriptionRepository.save(subscription);
-
-            // Create payment record
-            Payment payment = new Payment(user, BigDecimal.valueOf(type.getPrice()), Payment.PaymentType.SUBSCRIPTION);
-            payment.setSubscription(savedSubscription);
-            payment.setPaymentId(generatePaymentId());
-            Payment savedPayment = paymentRepository.save(payment);
-
-            // In a real implementation, you would integrate with a payment gateway here
-            // For now, we'll simulate the payment gateway response
-            Map<String, Object> paymentResponse = simulatePaymentGateway(savedPayment);
+            Payment savedPayment = new TransactionTemplate(transactionManager).execute(status -> {
+                User user = userRepository.findById(userId)
+                        .orElseThrow(() -> new RuntimeException("User not found"));
+
+                // Create subscription
+                Subscription subscription = new Subscription(user, type, BigDecimal.valueOf(type.getPrice()));
+                subscription.setStatus(Subscription.SubscriptionStatus.PENDING);
+                Subscription savedSubscription = subscriptionRepository.save(subscription);
+
+                // Create payment record
+                Payment payment = new Payment(user, BigDecimal.valueOf(type.getPrice()), Payment.PaymentType.SUBSCRIPTION);
+                payment.setSubscription(savedSubscription);
+                payment.setPaymentId(generatePaymentId());
+                return paymentRepository.save(payment);
+            });
+
+            Map<String, Object> paymentResponse = callGateway(savedPayment);
             
             logger.info("Initiated subscription payment with ID: {}", savedPayment.getPaymentId());
             return paymentResponse;
@@ -90,24 +168,26 @@ public class PaymentService {
         }
     }
 
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> initiateBookingPayment(Long userId, Long bookingId) {
         logger.info("Initiating booking payment for user {} and booking {}", userId, bookingId);
         try {
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            Booking booking = bookingRepository.findById(bookingId)
-                    .orElseThrow(() -> new RuntimeException("Booking not found"));
+            Payment savedPayment = new TransactionTemplate(transactionManager).execute(status -> {
+                User user = userRepository.findById(userId)
+                        .orElseThrow(() -> new RuntimeException("User not found"));
 
-            // Create payment record
-            Payment payment = new Payment(user, BigDecimal.valueOf(booking.getPrice()), Payment.PaymentType.BOOKING);
-            payment.setBooking(booking);
-            payment.setPaymentId(generatePaymentId());
-            Payment savedPayment = paymentRepository.save(payment);
+                Booking booking = bookingRepository.findById(bookingId)
+                        .orElseThrow(() -> new RuntimeException("Booking not found"));
 
-            // Simulate payment gateway
-            Map<String, Object> paymentResponse = simulatePaymentGateway(savedPayment);
+                if (booking.getStatus() != Booking.BookingStatus.HELD
+                        && booking.getStatus() != Booking.BookingStatus.CONFIRMED) {
+                    throw new RuntimeException("Booking is no longer reserved");
+                }
+
+                return createBookingPayment(user, booking);
+            });
+
+            Map<String, Object> paymentResponse = callGateway(savedPayment);
             
             logger.info("Initiated booking payment with ID: {}", savedPayment.getPaymentId());
             return paymentResponse;
@@ -117,6 +197,42 @@ public class PaymentService {
         }
     }
 
+    /**
+     * Holds the slot and creates its payment in one transaction, reusing the user
+     * and booking loaded by the hold, so either both exist or neither does. The
+     * gateway is called after commit; if it fails the hold is cancelled right away
+     * rather than left to expire.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> checkout(Long userId, Long gymId, Long timeSlotId, LocalDate bookingDate) {
+        logger.info("Checking out slot {} on {} for user {}", timeSlotId, bookingDate, userId);
+        try {
+            CheckoutRecord checkout = new TransactionTemplate(transactionManager).execute(status -> {
+                Booking booking = bookingService.holdForCheckout(userId, gymId, timeSlotId, bookingDate);
+                Payment savedPayment = createBookingPayment(booking.getUser(), booking);
+                return new CheckoutRecord(new BookingDTO(booking), savedPayment);
+            });
+
+            Map<String, Object> gatewayResponse;
+            try {
+                gatewayResponse = callGateway(checkout.payment());
+            } catch (RuntimeException e) {
+                bookingService.cancelBooking(checkout.booking().getId());
+                throw e;
+            }
+
+            Map<String, Object> checkoutResponse = new LinkedHashMap<>(gatewayResponse);
+            checkoutResponse.put("booking", checkout.booking());
+
+            logger.info("Checked out booking {} with payment ID: {}", checkout.booking().getId(),
+                       checkout.payment().getPaymentId());
+            return checkoutResponse;
+        } catch (Exception e) {
+            logger.error("Error checking out slot {} for user {}: ", timeSlotId, userId, e);
+            throw e;
+        }
+    }
+
     @Transactional
     public PaymentDTO processPaymentCallback(String paymentId, Map<String, Object> callbackData) {
         logger.info("Processing payment callback for payment ID: {}", paymentId);
@@ -128,9 +244,21 @@ public class PaymentService {
             String transactionId = (String) callbackData.get("transactionId");
             String paymentMethod = (String) callbackData.get("paymentMethod");
 
+            // Queued callbacks arrive at least once and possibly out of order, so a payment
+            // that already reached a final state keeps it
+            if (payment.getStatus() != Payment.PaymentStatus.PENDING) {
+                if (payment.getStatus().name().equals(status)) {
+                    logger.info("Ignoring duplicate {} callback for payment {}", status, paymentId);
+                } else {
+                    logger.warn("Ignoring {} callback for payment {} already in final state {}",
+                               status, paymentId, payment.getStatus());
+                }
+                return new PaymentDTO(payment);
+            }
+
             payment.setTransactionId(transactionId);
             payment.setPaymentMethod(paymentMethod);
-            payment.setGatewayResponse(callbackData.toString());
+            payment.setGatewayResponse(toJson(callbackData));
 
             if ("SUCCESS".equals(status)) {
                 payment.setStatus(Payment.PaymentStatus.SUCCESS);
@@ -144,8 +272,26 @@ public class PaymentService {
                 } else if (payment.getType() == Payment.PaymentType.BOOKING) {
                     // Confirm booking
                     Booking booking = payment.getBooking();
-                    booking.setStatus(Booking.BookingStatus.CONFIRMED);
-                    bookingRepository.save(booking);
+                    if (booking == null) {
+                        logger.warn("Payment {} succeeded for archived booking {}, refund required",
+                                   paymentId, payment.getArchivedBookingId());
+                    } else if (booking.getStatus() == Booking.BookingStatus.HELD
+                            || booking.getStatus() == Booking.BookingStatus.CONFIRMED) {
+                        booking.setStatus(Booking.BookingStatus.CONFIRMED);
+                        booking.setHoldExpiresAt(null);
+                        if (booking.getQrCode() == null) {
+                            booking.setQrCode(qrTokenProvider.generateToken(booking));
+                        }
+                        bookingRepository.save(booking);
+                        userBookingViewService.apply(booking);
+                        frontDeskRosterService.apply(booking);
+                        // Keep the hold timer if this callback rolls back and is retried
+                        Long bookingId = booking.getId();
+                        afterCommit(() -> bookingHoldService.release(bookingId));
+                    } else {
+                        logger.warn("Payment {} succeeded for booking {} in status {}, refund required",
+                                   paymentId, booking.getId(), booking.getStatus());
+                    }
                 }
             } else {
                 payment.setStatus(Payment.PaymentStatus.FAILED);
@@ -172,22 +318,79 @@ public class PaymentService {
         }
     }
 
-    @Transactional
+    /**
+     * Fails PENDING payments older than the timeout with repeated set-based
+     * UPDATE ... LIMIT statements, each committed on its own, so a large backlog is
+     * worked off in bounded chunks without loading any rows into memory.
+     */
+    @Scheduled(fixedDelayString = "${payment.cleanup.interval-ms:300000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void cleanupPendingPayments() {
-        logger.info("Cleaning up pending payments");
+        long started = System.nanoTime();
+        LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(pendingTimeoutMinutes);
+        int failed = 0;
+        int chunks = 0;
         try {
-            LocalDateTime cutoffTime = LocalDateTime.now().minusHours(1); // 1 hour timeout
-            List<Payment> pendingPayments = paymentRepository.findPendingPaymentsOlderThan(cutoffTime);
-            
-            logger.info("Found {} pending payments to cleanup", pendingPayments.size());
-            
-            for (Payment payment : pendingPayments) {
-                payment.setStatus(Payment.PaymentStatus.FAILED);
-                paymentRepository.save(payment);
-                logger.debug("Marked payment {} as failed due to timeout", payment.getPaymentId());
-            }
+            int updated;
+            do {
+                updated = jdbcTemplate.update(FAIL_PENDING_SQL, Timestamp.valueOf(LocalDateTime.now()),
+                        Timestamp.valueOf(cutoffTime), cleanupChunkSize);
+                failed += updated;
+                chunks++;
+            } while (updated == cleanupChunkSize);
         } catch (Exception e) {
-            logger.error("Error cleaning up pending payments: ", e);
+            logger.error("Error cleaning up pending payments after {} rows: ", failed, e);
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        cleanupRuns.incrementAndGet();
+        cleanupRowsFailed.addAndGet(failed);
+        lastCleanupRows = failed;
+        lastCleanupDurationMs = durationMs;
+        lastCleanupAt = LocalDateTime.now();
+        if (failed > 0) {
+            logger.info("Pending payment cleanup: rows={} chunks={} durationMs={} totalRows={} runs={}",
+                       failed, chunks, durationMs, cleanupRowsFailed.get(), cleanupRuns.get());
+        } else {
+            logger.debug("Pending payment cleanup: rows=0 durationMs={}", durationMs);
+        }
+    }
+
+    public Map<String, Object> getCleanupStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("runs", cleanupRuns.get());
+        stats.put("totalRows", cleanupRowsFailed.get());
+        stats.put("lastRows", lastCleanupRows);
+        stats.put("lastDurationMs", lastCleanupDurationMs);
+        stats.put("lastRunAt", lastCleanupAt);
+        return stats;
+    }
+
+    private Payment createBookingPayment(User user, Booking booking) {
+        Payment payment = new Payment(user, BigDecimal.valueOf(booking.getPrice()), Payment.PaymentType.BOOKING);
+        payment.setBooking(booking);
+        payment.setPaymentId(generatePaymentId());
+        return paymentRepository.save(payment);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private String toJson(Map<String, Object> callbackData) {
+        try {
+            return objectMapper.writeValueAsString(callbackData);
+        } catch (JsonProcessingException e) {
+            return callbackData.toString();
         }
     }
 
@@ -195,14 +398,15 @@ public class PaymentService {
         return "PAY_" + UUID.randomUUID().toString().replace("-", "").substring(0, 16).toUpperCase();
     }
 
-    private Map<String, Object> simulatePaymentGateway(Payment payment) {
-        // This is a simulation - in real implementation, integrate with actual payment gateway
-        return Map.of(
-            "paymentId", payment.getPaymentId(),
-            "amount", payment.getAmount(),
-            "currency", "USD",
-            "redirectUrl", "http://localhost:5173/payment/redirect?paymentId=" + payment.getPaymentId(),
-            "status", "PENDING"
-        );
+    // A payment the gateway never accepted can not complete, so it is failed right away
+    private Map<String, Object> callGateway(Payment payment) {
+        try {
+            return paymentGatewayService.initiate(payment.getPaymentId(), payment.getAmount(), CURRENCY);
+        } catch (RuntimeException e) {
+            jdbcTemplate.update(FAIL_PAYMENT_SQL, Timestamp.valueOf(LocalDateTime.now()), payment.getId());
+            throw e;
+        }
     }
+
+    private record CheckoutRecord(BookingDTO booking, Payment payment) {}
 }
\ No newline at end of file
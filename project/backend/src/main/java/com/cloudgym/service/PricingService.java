@@ -0,0 +1,113 @@
+package com.cloudgym.service;
+
+import com.cloudgym.repository.BookingRepository;
+import com.cloudgym.util.PriceTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Effective slot prices driven by fill rate, forecast demand and lead time. Prices
+ * are served from an in-memory {@link PriceTable}: an entry is seeded the first
+ * time a slot and date is quoted and then adjusted as bookings are made and
+ * released, so neither listing slots nor booking one recomputes the price.
+ * Dates beyond the pricing horizon are charged the base price and never stored,
+ * and an entry whose capacity or base price changed, e.g. through a timetable
+ * exception, is seeded again on its next quote.
+ */
+@Service
+public class PricingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingService.class);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CrowdForecastService crowdForecastService;
+
+    @Value("${pricing.min-multiplier:0.8}")
+    private double minMultiplier;
+
+    @Value("${pricing.max-multiplier:1.5}")
+    private double maxMultiplier;
+
+    @Value("${pricing.horizon-days:60}")
+    private int horizonDays;
+
+    @Value("${pricing.max-entries:100000}")
+    private int maxEntries;
+
+    private PriceTable priceTable;
+
+    @PostConstruct
+    public void init() {
+        priceTable = new PriceTable(minMultiplier, maxMultiplier, maxEntries);
+    }
+
+    /**
+     * Returns the effective price of a slot on a date. The reserved count passed in
+     * is only used to seed the entry on a miss; afterwards the table tracks it.
+     */
+    public double quote(Long timeSlotId, LocalDate date, double basePrice, int capacity, long reserved) {
+        LocalDate today = LocalDate.now();
+        if (date.isBefore(today) || date.isAfter(today.plusDays(horizonDays))) {
+            return basePrice;
+        }
+        Double price = priceTable.get(timeSlotId, date, basePrice, capacity);
+        if (price != null) {
+            return price;
+        }
+        return priceTable.seed(timeSlotId, date, basePrice, capacity, reserved,
+                crowdForecastService.getCrowdRatio(timeSlotId, date), today);
+    }
+
+    /** Call once a booking for the slot and date has been committed. */
+    public void recordReservation(Long timeSlotId, LocalDate date) {
+        priceTable.adjustReserved(timeSlotId, date, 1, LocalDate.now());
+    }
+
+    /** Call once a cancellation or expiry for the slot and date has been committed. */
+    public void recordRelease(Long timeSlotId, LocalDate date) {
+        priceTable.adjustReserved(timeSlotId, date, -1, LocalDate.now());
+    }
+
+    /**
+     * Reprices the table for the lead-time factor and resyncs reserved counts and
+     * forecasts from one grouped query, correcting any drift from bulk writes that
+     * bypass the incremental hooks.
+     */
+    @Scheduled(fixedDelayString = "${pricing.refresh-interval-ms:600000}",
+               initialDelayString = "${pricing.refresh-interval-ms:600000}")
+    public void refresh() {
+        LocalDate today = LocalDate.now();
+        priceTable.reprice(today);
+        if (priceTable.size() == 0) {
+            return;
+        }
+
+        LocalDate last = today;
+        for (PriceTable.Key key : priceTable.keys()) {
+            if (key.date().isAfter(last)) {
+                last = key.date();
+            }
+        }
+        Map<PriceTable.Key, Long> reserved = new HashMap<>();
+        for (Object[] row : bookingRepository.countReservedBookingsBetween(today, last)) {
+            reserved.put(new PriceTable.Key((Long) row[0], (LocalDate) row[1]), (Long) row[2]);
+        }
+        for (PriceTable.Key key : priceTable.keys()) {
+            priceTable.update(key.slotId(), key.date(), reserved.getOrDefault(key, 0L),
+                    crowdForecastService.getCrowdRatio(key.slotId(), key.date()), today);
+        }
+        logger.debug("Refreshed {} dynamic prices", priceTable.size());
+    }
+}
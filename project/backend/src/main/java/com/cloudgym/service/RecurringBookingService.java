@@ -0,0 +1,235 @@
+package com.cloudgym.service;
+
+import com.cloudgym.dto.RecurringBookingResultDTO;
+import com.cloudgym.entity.Booking;
+import com.cloudgym.entity.Gym;
+import com.cloudgym.entity.TimeSlot;
+import com.cloudgym.entity.User;
+import com.cloudgym.repository.BookingRepository;
+import com.cloudgym.repository.GymRepository;
+import com.cloudgym.repository.TimeSlotRepository;
+import com.cloudgym.repository.UserRepository;
+import com.cloudgym.security.QrTokenProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Books the same slot on a weekly pattern. Capacity for every occurrence is checked
+ * with a single grouped count and all accepted occurrences are written in one JDBC
+ * batch, instead of one availability query and one transaction per date. Each
+ * inserted booking then claims its range in the overlap and floor capacity sets,
+ * like a single booking does, and an occurrence whose claim loses a race is removed
+ * again and reported as failed.
+ */
+@Service
+public class RecurringBookingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurringBookingService.class);
+
+    private static final int MAX_WEEKS = 26;
+
+    private static final String INSERT_BOOKING_SQL =
+            "INSERT INTO bookings (user_id, gym_id, time_slot_id, booking_date, status, qr_code, price, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, NULL, ?, ?, ?)";
+
+    private static final String SET_QR_CODE_SQL = "UPDATE bookings SET qr_code = ? WHERE id = ?";
+
+    private static final String DELETE_BOOKING_SQL = "DELETE FROM bookings WHERE id = ?";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GymRepository gymRepository;
+
+    @Autowired
+    private TimeSlotRepository timeSlotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private QrTokenProvider qrTokenProvider;
+
+    @Autowired
+    private GymEventStreamService gymEventStreamService;
+
+    @Autowired
+    private UserBookingViewService userBookingViewService;
+
+    @Autowired
+    private TimetableService timetableService;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private FrontDeskRosterService frontDeskRosterService;
+
+    @Autowired
+    private BookingOverlapService bookingOverlapService;
+
+    @Autowired
+    private FloorCapacityService floorCapacityService;
+
+    @Transactional
+    public RecurringBookingResultDTO createRecurringBookings(Long userId, Long gymId, Long timeSlotId,
+                                                             Set<DayOfWeek> daysOfWeek, LocalDate startDate, int weeks) {
+        if (daysOfWeek.isEmpty()) {
+            throw new RuntimeException("At least one day of the week is required");
+        }
+        if (weeks < 1 || weeks > MAX_WEEKS) {
+            throw new RuntimeException("Weeks must be between 1 and " + MAX_WEEKS);
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        Gym gym = gymRepository.findById(gymId)
+                .orElseThrow(() -> new RuntimeException("Gym not found"));
+
+        TimeSlot timeSlot = timeSlotRepository.findById(timeSlotId)
+                .orElseThrow(() -> new RuntimeException("Time slot not found"));
+
+        if (!timeSlot.getGym().getId().equals(gym.getId())) {
+            throw new RuntimeException("Time slot does not belong to gym");
+        }
+
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = startDate; date.isBefore(startDate.plusWeeks(weeks)); date = date.plusDays(1)) {
+            if (daysOfWeek.contains(date.getDayOfWeek())) {
+                dates.add(date);
+            }
+        }
+
+        // One grouped count covers availability and double-booking for every date
+        Map<LocalDate, long[]> reserved = new HashMap<>();
+        for (Object[] row : bookingRepository.countReservedBookingsByDate(timeSlotId, userId, dates)) {
+            reserved.put((LocalDate) row[0], new long[] { ((Number) row[1]).longValue(), ((Number) row[2]).longValue() });
+        }
+
+        List<RecurringBookingResultDTO.Occurrence> occurrences = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>();
+        Map<LocalDate, RecurringBookingResultDTO.Occurrence> accepted = new HashMap<>();
+        Map<LocalDate, Integer> remaining = new HashMap<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        LocalDate today = LocalDate.now();
+
+        for (LocalDate date : dates) {
+            long[] counts = reserved.getOrDefault(date, new long[] { 0, 0 });
+            Optional<Integer> capacity = timetableService.capacityFor(timeSlot, date);
+            RecurringBookingResultDTO.Occurrence occurrence;
+            if (date.isBefore(today)) {
+                occurrence = new RecurringBookingResultDTO.Occurrence(date, false, "Date is in the past");
+            } else if (capacity.isEmpty()) {
+                occurrence = new RecurringBookingResultDTO.Occurrence(date, false, "Time slot is not offered on this date");
+            } else if (counts[1] > 0) {
+                occurrence = new RecurringBookingResultDTO.Occurrence(date, false, "Already booked");
+            } else if (counts[0] >= capacity.get()) {
+                occurrence = new RecurringBookingResultDTO.Occurrence(date, false, "Time slot is fully booked");
+            } else if (bookingOverlapService.overlaps(userId, date, timeSlot.getStartTime(), timeSlot.getEndTime())) {
+                occurrence = new RecurringBookingResultDTO.Occurrence(date, false, "Overlaps another booking");
+            } else if (!floorCapacityService.fits(gym, date, timeSlot.getStartTime(), timeSlot.getEndTime())) {
+                occurrence = new RecurringBookingResultDTO.Occurrence(date, false, "Gym is at capacity for part of this time");
+            } else {
+                occurrence = new RecurringBookingResultDTO.Occurrence(date, true, null);
+                accepted.put(date, occurrence);
+                remaining.put(date, (int) (capacity.get() - counts[0] - 1));
+                double price = pricingService.quote(timeSlotId, date, timeSlot.getPrice(), capacity.get(), counts[0]);
+                batch.add(new Object[] {
+                    user.getId(), gym.getId(), timeSlot.getId(), Date.valueOf(date),
+                    Booking.BookingStatus.CONFIRMED.name(), price, now, now
+                });
+            }
+            occurrences.add(occurrence);
+        }
+
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_BOOKING_SQL, batch);
+
+            // Signed QR codes embed the booking id, so they are set in a second batch
+            List<Object[]> qrCodes = new ArrayList<>();
+            List<Object[]> rejected = new ArrayList<>();
+            for (Object[] row : bookingRepository.findConfirmedBookingIds(userId, timeSlotId, accepted.keySet())) {
+                LocalDate date = (LocalDate) row[1];
+                RecurringBookingResultDTO.Occurrence occurrence = accepted.get(date);
+                if (occurrence == null) {
+                    continue;
+                }
+                Long bookingId = (Long) row[0];
+                String conflict = claim(userId, gym, timeSlot, date, bookingId);
+                if (conflict != null) {
+                    occurrence.setSuccess(false);
+                    occurrence.setReason(conflict);
+                    accepted.remove(date);
+                    remaining.remove(date);
+                    rejected.add(new Object[] { bookingId });
+                    continue;
+                }
+                occurrence.setBookingId(bookingId);
+                occurrence.setQrCode(qrTokenProvider.generateToken(bookingId, gym.getId(), date,
+                        timeSlot.getStartTime(), timeSlot.getEndTime()));
+                qrCodes.add(new Object[] { occurrence.getQrCode(), bookingId });
+            }
+            if (!rejected.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_BOOKING_SQL, rejected);
+            }
+            jdbcTemplate.batchUpdate(SET_QR_CODE_SQL, qrCodes);
+            userBookingViewService.invalidate(userId);
+            frontDeskRosterService.invalidate(gymId, List.copyOf(accepted.keySet()));
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remaining.forEach((date, spots) -> {
+                    pricingService.recordReservation(timeSlotId, date);
+                    gymEventStreamService.publishAvailability(gymId, timeSlotId, date, spots);
+                });
+            }
+        });
+
+        logger.info("Recurring booking for user {} on slot {}: {} of {} occurrences booked",
+                   userId, timeSlotId, accepted.size(), dates.size());
+        return new RecurringBookingResultDTO(gymId, timeSlotId, occurrences);
+    }
+
+    /**
+     * Claims an inserted occurrence in the overlap and floor capacity sets, returning
+     * why it was refused or null. The claims are taken back if the transaction rolls back.
+     */
+    private String claim(Long userId, Gym gym, TimeSlot timeSlot, LocalDate date, Long bookingId) {
+        try {
+            bookingOverlapService.claim(userId, date, timeSlot.getStartTime(), timeSlot.getEndTime(), bookingId);
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+        try {
+            floorCapacityService.claim(gym, date, timeSlot.getStartTime(), timeSlot.getEndTime(), bookingId);
+        } catch (RuntimeException e) {
+            bookingOverlapService.release(userId, date, bookingId);
+            return e.getMessage();
+        }
+        return null;
+    }
+}
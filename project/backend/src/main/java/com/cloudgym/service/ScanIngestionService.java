@@ -0,0 +1,289 @@
+package com.cloudgym.service;
+
+import com.cloudgym.dto.ScanEventDTO;
+import com.cloudgym.dto.ScanEventResultDTO;
+import com.cloudgym.entity.Booking;
+import com.cloudgym.repository.BookingRepository;
+import com.cloudgym.security.QrTokenProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies batches of turnstile scans. Duplicate scans are collapsed, every booking
+ * in the batch is read with one query and all check-ins and check-outs are written
+ * with two JDBC batches inside a single transaction.
+ *
+ * Every event must carry the booking's QR code, either a signed token or the legacy
+ * code stored on the booking. Check-ins go through the same gym, date, time window
+ * and revocation checks as a single scan at the desk.
+ */
+@Service
+public class ScanIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScanIngestionService.class);
+
+    public static final int MAX_EVENTS = 1000;
+
+    private static final String CHECK_IN = "CHECK_IN";
+    private static final String CHECK_OUT = "CHECK_OUT";
+
+    // The guards let a check-in or check-out committed meanwhile by the desk win
+    private static final String CHECK_IN_SQL =
+            "UPDATE bookings SET check_in_time = ?, updated_at = ? " +
+            "WHERE id = ? AND status = 'CONFIRMED' AND check_in_time IS NULL";
+    private static final String CHECK_OUT_SQL =
+            "UPDATE bookings SET check_out_time = ?, status = 'COMPLETED', updated_at = ? " +
+            "WHERE id = ? AND check_in_time IS NOT NULL AND check_out_time IS NULL";
+
+    // How far back a device clock may report a scan; older times are clamped
+    @Value("${booking.scans.max-device-lag-minutes:15}")
+    private long maxDeviceLagMinutes;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private QrTokenProvider qrTokenProvider;
+
+    @Autowired
+    private CheckInService checkInService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserBookingViewService userBookingViewService;
+
+    @Autowired
+    private OccupancyService occupancyService;
+
+    @Transactional
+    public List<ScanEventResultDTO> ingest(List<ScanEventDTO> events) {
+        if (events.size() > MAX_EVENTS) {
+            throw new RuntimeException("At most " + MAX_EVENTS + " scan events can be sent at once");
+        }
+
+        Map<ScanEventDTO, ScanEventResultDTO> results = new HashMap<>();
+        Map<ScanEventDTO, QrTokenProvider.QrClaims> claimsByEvent = new HashMap<>();
+        Map<String, ScanEventDTO> unique = new HashMap<>();
+        Set<String> seenEventIds = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (ScanEventDTO event : events) {
+            String type = event.getType() != null ? event.getType().toUpperCase() : null;
+            QrTokenProvider.QrClaims claims = parseClaims(event);
+            Long bookingId = claims != null ? claims.bookingId() : legacyBookingId(event);
+
+            if (!CHECK_IN.equals(type) && !CHECK_OUT.equals(type)) {
+                results.put(event, rejected(event, bookingId, "Unknown scan type"));
+                continue;
+            }
+            if (bookingId == null) {
+                results.put(event, rejected(event, null, "Invalid QR code"));
+                continue;
+            }
+            event.setDeviceTimestamp(clampDeviceTime(event.getDeviceTimestamp(), now));
+            if (claims != null) {
+                claimsByEvent.put(event, claims);
+            }
+            if (event.getEventId() != null && !seenEventIds.add(event.getEventId())) {
+                results.put(event, duplicate(event, bookingId));
+                continue;
+            }
+
+            // Keep the first entry and the last exit per booking
+            event.setBookingId(bookingId);
+            event.setType(type);
+            String key = bookingId + ":" + type;
+            ScanEventDTO kept = unique.get(key);
+            if (kept == null) {
+                unique.put(key, event);
+            } else {
+                boolean replaces = CHECK_IN.equals(type)
+                        ? event.getDeviceTimestamp().isBefore(kept.getDeviceTimestamp())
+                        : event.getDeviceTimestamp().isAfter(kept.getDeviceTimestamp());
+                ScanEventDTO dropped = replaces ? kept : event;
+                results.put(dropped, duplicate(dropped, bookingId));
+                if (replaces) {
+                    unique.put(key, event);
+                }
+            }
+        }
+
+        Set<Long> bookingIds = unique.values().stream().map(ScanEventDTO::getBookingId).collect(Collectors.toSet());
+        Map<Long, Booking> bookings = bookingRepository.findAllById(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        List<Object[]> checkIns = new ArrayList<>();
+        List<Object[]> checkOuts = new ArrayList<>();
+        Map<Long, LocalDate> admitted = new HashMap<>();
+        List<ScanEventDTO> entered = new ArrayList<>();
+        List<ScanEventDTO> exited = new ArrayList<>();
+        Set<Long> checkedInThisBatch = new HashSet<>();
+        boolean awaitingDeskCheckIn = false;
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        LocalDate today = now.toLocalDate();
+
+        List<ScanEventDTO> ordered = new ArrayList<>(unique.values());
+        ordered.sort(Comparator.comparing(ScanEventDTO::getDeviceTimestamp));
+
+        for (ScanEventDTO event : ordered) {
+            Booking booking = bookings.get(event.getBookingId());
+            QrTokenProvider.QrClaims claims = claimsByEvent.get(event);
+            String reason = null;
+            boolean duplicate = false;
+
+            if (booking == null) {
+                reason = "Booking not found";
+            } else if (claims == null && !event.getQrCode().equals(booking.getQrCode())) {
+                // Bookings created before signed tokens carry a random code
+                reason = "Invalid QR code";
+            } else if (event.getGymId() != null && !event.getGymId().equals(booking.getGym().getId())) {
+                reason = "Booking is for a different gym";
+            } else if (CHECK_IN.equals(event.getType())) {
+                if (booking.getCheckInTime() != null || checkInService.isAdmitted(booking.getId())) {
+                    duplicate = true;
+                } else if (booking.getStatus() != Booking.BookingStatus.CONFIRMED) {
+                    reason = "Booking is not confirmed";
+                } else if (!booking.getBookingDate().equals(today)) {
+                    reason = "Booking is not for today";
+                } else if (claims != null && !claims.isValidAt(event.getDeviceTimestamp())) {
+                    reason = "QR code is not valid at this time";
+                } else if (checkInService.isRevoked(booking.getId())) {
+                    reason = "Booking has been cancelled";
+                } else {
+                    checkIns.add(new Object[] { Timestamp.valueOf(event.getDeviceTimestamp()), updatedAt, booking.getId() });
+                    checkedInThisBatch.add(booking.getId());
+                    admitted.put(booking.getId(), booking.getBookingDate());
+                    entered.add(event);
+                }
+            } else {
+                if (booking.getCheckOutTime() != null) {
+                    duplicate = true;
+                } else if (booking.getCheckInTime() == null && !checkedInThisBatch.contains(booking.getId())
+                        && !checkInService.isAdmitted(booking.getId())) {
+                    reason = "User has not checked in";
+                } else {
+                    // Admitted at the desk but not yet written; flushed before the check-outs
+                    awaitingDeskCheckIn |= booking.getCheckInTime() == null && !checkedInThisBatch.contains(booking.getId());
+                    checkOuts.add(new Object[] { Timestamp.valueOf(event.getDeviceTimestamp()), updatedAt, booking.getId() });
+                    exited.add(event);
+                }
+            }
+
+            if (duplicate) {
+                results.put(event, duplicate(event, event.getBookingId()));
+            } else if (reason != null) {
+                results.put(event, rejected(event, event.getBookingId(), reason));
+            } else {
+                results.put(event, new ScanEventResultDTO(event.getEventId(), event.getBookingId(),
+                        event.getType(), "APPLIED", null));
+            }
+        }
+
+        if (!checkIns.isEmpty()) {
+            markSkippedAsDuplicates(jdbcTemplate.batchUpdate(CHECK_IN_SQL, checkIns), entered, results);
+            admitted.keySet().retainAll(entered.stream().map(ScanEventDTO::getBookingId).toList());
+        }
+        if (!checkOuts.isEmpty()) {
+            if (awaitingDeskCheckIn) {
+                checkInService.flushAll();
+            }
+            markSkippedAsDuplicates(jdbcTemplate.batchUpdate(CHECK_OUT_SQL, checkOuts), exited, results);
+        }
+        List<Long> left = exited.stream().map(ScanEventDTO::getBookingId).toList();
+        List<Long> changed = new ArrayList<>(admitted.keySet());
+        changed.addAll(left);
+        userBookingViewService.invalidateForBookings(changed);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                admitted.forEach(checkInService::markAdmitted);
+                for (ScanEventDTO event : entered) {
+                    Long gymId = bookings.get(event.getBookingId()).getGym().getId();
+                    occupancyService.recordCheckIn(event.getBookingId(), gymId, event.getDeviceTimestamp());
+                }
+                left.forEach(occupancyService::recordCheckOut);
+            }
+        });
+
+        logger.info("Ingested {} scan events: {} check-ins and {} check-outs applied",
+                   events.size(), entered.size(), exited.size());
+        return events.stream().map(results::get).toList();
+    }
+
+    /** Claims of a correctly signed token naming the event's booking, or null. */
+    private QrTokenProvider.QrClaims parseClaims(ScanEventDTO event) {
+        if (!qrTokenProvider.isSignedToken(event.getQrCode())) {
+            return null;
+        }
+        try {
+            QrTokenProvider.QrClaims claims = qrTokenProvider.parseToken(event.getQrCode());
+            if (event.getBookingId() != null && !event.getBookingId().equals(claims.bookingId())) {
+                return null;
+            }
+            return claims;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // A legacy code is compared with the stored one once the booking is loaded
+    private Long legacyBookingId(ScanEventDTO event) {
+        if (event.getQrCode() == null || qrTokenProvider.isSignedToken(event.getQrCode())) {
+            return null;
+        }
+        return event.getBookingId();
+    }
+
+    // Device clocks are not trusted beyond the allowed lag, and never into another day
+    private LocalDateTime clampDeviceTime(LocalDateTime deviceTime, LocalDateTime now) {
+        LocalDateTime earliest = now.minusMinutes(maxDeviceLagMinutes);
+        if (earliest.isBefore(now.toLocalDate().atStartOfDay())) {
+            earliest = now.toLocalDate().atStartOfDay();
+        }
+        if (deviceTime == null || deviceTime.isAfter(now)) {
+            return now;
+        }
+        return deviceTime.isBefore(earliest) ? earliest : deviceTime;
+    }
+
+    // Rows the guarded update did not touch were already written by another check-in path
+    private void markSkippedAsDuplicates(int[] counts, List<ScanEventDTO> applied,
+                                         Map<ScanEventDTO, ScanEventResultDTO> results) {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] == 0) {
+                ScanEventDTO event = applied.remove(i);
+                results.put(event, duplicate(event, event.getBookingId()));
+            }
+        }
+    }
+
+    private ScanEventResultDTO duplicate(ScanEventDTO event, Long bookingId) {
+        return new ScanEventResultDTO(event.getEventId(), bookingId, event.getType(), "DUPLICATE", null);
+    }
+
+    private ScanEventResultDTO rejected(ScanEventDTO event, Long bookingId, String reason) {
+        return new ScanEventResultDTO(event.getEventId(), bookingId, event.getType(), "REJECTED", reason);
+    }
+}
@@ -0,0 +1,480 @@
+package com.cloudgym.service;
+
+import com.cloudgym.dto.ReconciliationReportDTO;
+import com.cloudgym.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reconciles gateway settlement exports against the payments table. CSV files
+ * dropped into the inbox directory are streamed line by line and matched in
+ * batches, by payment id and then by transaction id, with one IN query per batch.
+ * Mismatches are streamed to a report CSV. Settled payment ids are remembered in a
+ * fixed-size Bloom filter, and successful payments in the time span the file
+ * covers are then scrolled by (created_at, id) to find those the gateway never
+ * settled. A payment the filter has already seen is only a duplicate candidate;
+ * candidates are confirmed by counting them exactly in a second pass over the file,
+ * which is skipped when there are none. Memory use depends on the batch size,
+ * filter size and number of candidates, not on the size of the file.
+ */
+@Service
+public class SettlementReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SettlementReconciliationService.class);
+
+    private static final String PAYMENT_COLUMNS = "SELECT id, payment_id, transaction_id, amount, status, created_at FROM payments ";
+
+    // Keyset on (created_at, id) so every page is a range scan on idx_payments_status_created
+    private static final String SCROLL_SUCCESSFUL_SQL =
+            PAYMENT_COLUMNS + "WHERE status = 'SUCCESS' AND created_at <= ? " +
+            "AND (created_at > ? OR (created_at = ? AND id > ?)) ORDER BY created_at, id LIMIT ?";
+
+    private static final String REPORT_HEADER =
+            "type,paymentId,transactionId,settlementAmount,ledgerAmount,settlementStatus,ledgerStatus";
+
+    @Value("${payment.reconciliation.inbox-dir:settlements/inbox}")
+    private String inboxDir;
+
+    @Value("${payment.reconciliation.processed-dir:settlements/processed}")
+    private String processedDir;
+
+    @Value("${payment.reconciliation.failed-dir:settlements/failed}")
+    private String failedDir;
+
+    @Value("${payment.reconciliation.report-dir:settlements/reports}")
+    private String reportDir;
+
+    @Value("${payment.reconciliation.batch-size:1000}")
+    private int batchSize;
+
+    // Sizes the Bloom filter; files with more rows only raise its false-positive rate
+    @Value("${payment.reconciliation.expected-records:10000000}")
+    private long expectedRecords;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Scheduled(cron = "${payment.reconciliation.cron:0 0 4 * * *}")
+    public void reconcileInbox() {
+        try {
+            reconcilePending();
+        } catch (IOException e) {
+            logger.error("Settlement reconciliation failed: ", e);
+        }
+    }
+
+    /**
+     * Reconciles every CSV in the inbox, oldest name first, moving each to the processed
+     * directory. A file that cannot be reconciled is moved to the failed directory so it
+     * does not hold up the files after it.
+     */
+    public synchronized List<ReconciliationReportDTO> reconcilePending() throws IOException {
+        Path inbox = Paths.get(inboxDir);
+        Files.createDirectories(inbox);
+        Files.createDirectories(Paths.get(processedDir));
+        Files.createDirectories(Paths.get(failedDir));
+        Files.createDirectories(Paths.get(reportDir));
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(inbox, "*.csv")) {
+            stream.forEach(files::add);
+        }
+        Collections.sort(files);
+
+        List<ReconciliationReportDTO> reports = new ArrayList<>();
+        for (Path file : files) {
+            ReconciliationReportDTO report;
+            try {
+                report = reconcile(file);
+            } catch (IOException e) {
+                logger.error("Could not reconcile settlement file {}, moving it to {}: {}",
+                            file.getFileName(), failedDir, e.getMessage());
+                Files.move(file, Paths.get(failedDir).resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                continue;
+            }
+            Files.move(file, Paths.get(processedDir).resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            reports.add(report);
+        }
+        return reports;
+    }
+
+    private ReconciliationReportDTO reconcile(Path file) throws IOException {
+        long started = System.nanoTime();
+        String name = file.getFileName().toString();
+        Path reportFile = Paths.get(reportDir).resolve(name.replaceFirst("\\.csv$", "") + "-report.csv");
+        ReconciliationReportDTO report = new ReconciliationReportDTO(name, reportFile.toString());
+        Run run = new Run(report, new BloomFilter(expectedRecords, 0.001));
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+            run.writer = writer;
+            writer.write(REPORT_HEADER);
+            writer.newLine();
+
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new IOException("Settlement file " + name + " is empty");
+            }
+            Map<String, Integer> header = headerColumns(parseCsvLine(headerLine));
+            Columns columns = new Columns(column(header, "paymentid", "payment_id"),
+                    column(header, "transactionid", "transaction_id"), column(header, "amount"), column(header, "status"));
+            if ((columns.paymentId() == null && columns.transactionId() == null)
+                    || columns.amount() == null || columns.status() == null) {
+                throw new IOException("Settlement file " + name + " needs paymentId or transactionId, amount and status columns");
+            }
+
+            List<SettlementRecord> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                report.setRecords(report.getRecords() + 1);
+                SettlementRecord record = toRecord(parseCsvLine(line), columns);
+                if (record == null) {
+                    report.setMalformed(report.getMalformed() + 1);
+                    continue;
+                }
+                batch.add(record);
+                if (batch.size() == batchSize) {
+                    matchBatch(batch, run);
+                    batch.clear();
+                }
+            }
+            matchBatch(batch, run);
+            findDuplicates(file, columns, run);
+            findUnsettled(run);
+        }
+
+        report.setDurationMs((System.nanoTime() - started) / 1_000_000);
+        logger.info("Reconciled {}: {} records, {} matched, {} missing in ledger, {} missing in settlement, " +
+                    "{} duplicates, {} amount and {} status mismatches, {} malformed in {} ms",
+                   name, report.getRecords(), report.getMatched(), report.getMissingInLedger(),
+                   report.getMissingInSettlement(), report.getDuplicatesInSettlement(), report.getAmountMismatches(),
+                   report.getStatusMismatches(), report.getMalformed(), report.getDurationMs());
+        return report;
+    }
+
+    private void matchBatch(List<SettlementRecord> batch, Run run) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<LedgerPayment> payments = resolve(batch);
+        ReconciliationReportDTO report = run.report;
+        for (int i = 0; i < batch.size(); i++) {
+            SettlementRecord record = batch.get(i);
+            LedgerPayment payment = payments.get(i);
+            if (payment == null) {
+                report.setMissingInLedger(report.getMissingInLedger() + 1);
+                writeMismatch(run, "MISSING_IN_LEDGER", record, null);
+                continue;
+            }
+
+            if (run.settled.mightContain(payment.paymentId())) {
+                run.duplicateCandidates.put(payment.paymentId(), payment);
+            } else {
+                run.settled.add(payment.paymentId());
+            }
+            run.from = run.from == null || payment.createdAt().isBefore(run.from) ? payment.createdAt() : run.from;
+            run.to = run.to == null || payment.createdAt().isAfter(run.to) ? payment.createdAt() : run.to;
+
+            boolean matched = true;
+            if (record.amount().compareTo(payment.amount()) != 0) {
+                report.setAmountMismatches(report.getAmountMismatches() + 1);
+                writeMismatch(run, "AMOUNT_MISMATCH", record, payment);
+                matched = false;
+            }
+            if (!record.status().equals(payment.status())) {
+                report.setStatusMismatches(report.getStatusMismatches() + 1);
+                writeMismatch(run, "STATUS_MISMATCH", record, payment);
+                matched = false;
+            }
+            if (matched) {
+                report.setMatched(report.getMatched() + 1);
+            }
+        }
+    }
+
+    /** The ledger payment of each record, by payment id and then by transaction id, or null. */
+    private List<LedgerPayment> resolve(List<SettlementRecord> batch) {
+        Map<String, LedgerPayment> byPaymentId = lookup("payment_id", batch.stream()
+                .map(SettlementRecord::paymentId).filter(id -> id != null).distinct().toList(), LedgerPayment::paymentId);
+        List<String> unmatchedTransactionIds = batch.stream()
+                .filter(record -> record.paymentId() == null || !byPaymentId.containsKey(record.paymentId()))
+                .map(SettlementRecord::transactionId).filter(id -> id != null).distinct().toList();
+        Map<String, LedgerPayment> byTransactionId = lookup("transaction_id", unmatchedTransactionIds,
+                LedgerPayment::transactionId);
+
+        List<LedgerPayment> payments = new ArrayList<>(batch.size());
+        for (SettlementRecord record : batch) {
+            LedgerPayment payment = record.paymentId() != null ? byPaymentId.get(record.paymentId()) : null;
+            if (payment == null && record.transactionId() != null) {
+                payment = byTransactionId.get(record.transactionId());
+            }
+            payments.add(payment);
+        }
+        return payments;
+    }
+
+    /**
+     * Re-reads the file, keeping only records that could belong to a duplicate
+     * candidate, and reports every settlement row after the first for the same
+     * payment. Candidates that turn out to occur once were Bloom filter false positives.
+     */
+    private void findDuplicates(Path file, Columns columns, Run run) throws IOException {
+        if (run.duplicateCandidates.isEmpty()) {
+            return;
+        }
+        Set<String> candidateTransactionIds = new HashSet<>();
+        run.duplicateCandidates.values().forEach(payment -> {
+            if (payment.transactionId() != null) {
+                candidateTransactionIds.add(payment.transactionId());
+            }
+        });
+
+        Map<String, Integer> occurrences = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            reader.readLine();
+            List<SettlementRecord> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                SettlementRecord record = line.isBlank() ? null : toRecord(parseCsvLine(line), columns);
+                if (record == null || (!run.duplicateCandidates.containsKey(record.paymentId())
+                        && !candidateTransactionIds.contains(record.transactionId()))) {
+                    continue;
+                }
+                batch.add(record);
+                if (batch.size() == batchSize) {
+                    countOccurrences(batch, occurrences, run);
+                    batch.clear();
+                }
+            }
+            countOccurrences(batch, occurrences, run);
+        }
+    }
+
+    private void countOccurrences(List<SettlementRecord> batch, Map<String, Integer> occurrences, Run run)
+            throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<LedgerPayment> payments = resolve(batch);
+        for (int i = 0; i < batch.size(); i++) {
+            LedgerPayment payment = payments.get(i);
+            if (payment == null || !run.duplicateCandidates.containsKey(payment.paymentId())) {
+                continue;
+            }
+            if (occurrences.merge(payment.paymentId(), 1, Integer::sum) > 1) {
+                run.report.setDuplicatesInSettlement(run.report.getDuplicatesInSettlement() + 1);
+                writeMismatch(run, "DUPLICATE_IN_SETTLEMENT", batch.get(i), payment);
+            }
+        }
+    }
+
+    /**
+     * Scrolls successful payments in the span of the matched ones with a
+     * (created_at, id) cursor and reports those the settlement file did not contain.
+     * A Bloom filter false positive can hide one of them, but nothing is ever
+     * reported wrongly.
+     */
+    private void findUnsettled(Run run) throws IOException {
+        if (run.from == null) {
+            return;
+        }
+        Timestamp lastCreatedAt = Timestamp.valueOf(run.from);
+        long lastId = 0;
+        while (true) {
+            List<LedgerPayment> page = jdbcTemplate.query(SCROLL_SUCCESSFUL_SQL, this::toLedgerPayment,
+                    Timestamp.valueOf(run.to), lastCreatedAt, lastCreatedAt, lastId, batchSize);
+            for (LedgerPayment payment : page) {
+                if (!run.settled.mightContain(payment.paymentId())) {
+                    run.report.setMissingInSettlement(run.report.getMissingInSettlement() + 1);
+                    writeMismatch(run, "MISSING_IN_SETTLEMENT", null, payment);
+                }
+            }
+            if (page.size() < batchSize) {
+                return;
+            }
+            LedgerPayment last = page.get(page.size() - 1);
+            lastCreatedAt = Timestamp.valueOf(last.createdAt());
+            lastId = last.id();
+        }
+    }
+
+    private Map<String, LedgerPayment> lookup(String column, List<String> keys,
+                                              Function<LedgerPayment, String> keyOf) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        String placeholders = keys.stream().map(key -> "?").collect(Collectors.joining(", "));
+        List<LedgerPayment> payments = jdbcTemplate.query(
+                PAYMENT_COLUMNS + "WHERE " + column + " IN (" + placeholders + ")", this::toLedgerPayment,
+                keys.toArray());
+        Map<String, LedgerPayment> byKey = new HashMap<>();
+        for (LedgerPayment payment : payments) {
+            String key = keyOf.apply(payment);
+            if (key != null) {
+                byKey.putIfAbsent(key, payment);
+            }
+        }
+        return byKey;
+    }
+
+    private LedgerPayment toLedgerPayment(ResultSet rs, int rowNum) throws SQLException {
+        return new LedgerPayment(rs.getLong("id"), rs.getString("payment_id"), rs.getString("transaction_id"),
+                rs.getBigDecimal("amount"), rs.getString("status"), rs.getTimestamp("created_at").toLocalDateTime());
+    }
+
+    private void writeMismatch(Run run, String type, SettlementRecord record, LedgerPayment payment) throws IOException {
+        run.writer.write(String.join(",",
+                type,
+                csv(record != null ? record.paymentId() : payment.paymentId()),
+                csv(record != null ? record.transactionId() : payment.transactionId()),
+                csv(record != null ? record.amount().toPlainString() : null),
+                csv(payment != null ? payment.amount().toPlainString() : null),
+                csv(record != null ? record.status() : null),
+                csv(payment != null ? payment.status() : null)));
+        run.writer.newLine();
+    }
+
+    private SettlementRecord toRecord(List<String> fields, Columns columns) {
+        String paymentId = field(fields, columns.paymentId());
+        String transactionId = field(fields, columns.transactionId());
+        String amount = field(fields, columns.amount());
+        String status = field(fields, columns.status());
+        if ((paymentId == null && transactionId == null) || amount == null || status == null) {
+            return null;
+        }
+        try {
+            return new SettlementRecord(paymentId, transactionId, new BigDecimal(amount), normalizeStatus(status));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Gateways name their outcomes differently; map them onto Payment.PaymentStatus
+    private String normalizeStatus(String status) {
+        String upper = status.toUpperCase(Locale.ROOT);
+        return switch (upper) {
+            case "SETTLED", "SUCCESS", "SUCCEEDED", "CAPTURED", "PAID" -> "SUCCESS";
+            case "FAILED", "DECLINED", "REJECTED" -> "FAILED";
+            case "REFUNDED", "REVERSED", "CHARGEBACK" -> "REFUNDED";
+            default -> upper;
+        };
+    }
+
+    private Map<String, Integer> headerColumns(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        return columns;
+    }
+
+    private Integer column(Map<String, Integer> columns, String... names) {
+        for (String name : names) {
+            if (columns.containsKey(name)) {
+                return columns.get(name);
+            }
+        }
+        return null;
+    }
+
+    private String field(List<String> fields, Integer column) {
+        if (column == null || column >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // RFC 4180 fields on a single line: quoted fields may contain commas and "" escapes
+    private List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private record Columns(Integer paymentId, Integer transactionId, Integer amount, Integer status) {}
+
+    private record SettlementRecord(String paymentId, String transactionId, BigDecimal amount, String status) {}
+
+    private record LedgerPayment(long id, String paymentId, String transactionId, BigDecimal amount,
+                                 String status, LocalDateTime createdAt) {}
+
+    private static class Run {
+        private final ReconciliationReportDTO report;
+        private final BloomFilter settled;
+        // Payments the filter had already seen when they came up again, by payment id
+        private final Map<String, LedgerPayment> duplicateCandidates = new HashMap<>();
+        private BufferedWriter writer;
+        private LocalDateTime from;
+        private LocalDateTime to;
+
+        private Run(ReconciliationReportDTO report, BloomFilter settled) {
+            this.report = report;
+            this.settled = settled;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.cloudgym.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for the payment gateway. Latency, failures and hangs can be
+ * injected through configuration to see how checkout behaves when the real
+ * gateway is slow or down.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.gateway.client", havingValue = "simulator", matchIfMissing = true)
+public class SimulatedPaymentGatewayClient implements PaymentGatewayClient {
+
+    @Value("${payment.gateway.simulator.latency-ms:0}")
+    private long latencyMs;
+
+    @Value("${payment.gateway.simulator.jitter-ms:0}")
+    private long jitterMs;
+
+    // Share of calls that fail with an error after the latency
+    @Value("${payment.gateway.simulator.error-rate:0.0}")
+    private double errorRate;
+
+    // Share of calls that hang for hang-ms, which should trip the caller's timeout
+    @Value("${payment.gateway.simulator.hang-rate:0.0}")
+    private double hangRate;
+
+    @Value("${payment.gateway.simulator.hang-ms:30000}")
+    private long hangMs;
+
+    @Value("${payment.gateway.simulator.redirect-base-url:http://localhost:5173/payment/redirect}")
+    private String redirectBaseUrl;
+
+    @Override
+    public Map<String, Object> initiate(String paymentId, BigDecimal amount, String currency) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double roll = random.nextDouble();
+        sleep(roll < hangRate ? hangMs : latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0));
+        if (roll >= hangRate && roll < hangRate + errorRate) {
+            throw new RuntimeException("Simulated gateway error");
+        }
+        return Map.of(
+            "paymentId", paymentId,
+            "amount", amount,
+            "currency", currency,
+            "redirectUrl", redirectBaseUrl + "?paymentId=" + paymentId,
+            "status", "PENDING"
+        );
+    }
+
+    private void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Gateway call interrupted");
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package com.cloudgym.service;
 
+import com.cloudgym.dto.CursorPageDTO;
 import com.cloudgym.dto.SubscriptionDTO;
 import com.cloudgym.entity.Subscription;
 import com.cloudgym.entity.User;
 import com.cloudgym.repository.SubscriptionRepository;
 import com.cloudgym.repository.UserRepository;
+import com.cloudgym.util.KeysetCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
@@ -27,18 +30,24 @@ public class SubscriptionService {
     @Autowired
     private UserRepository userRepository;
 
-    public List<SubscriptionDTO> getUserSubscriptions(Long userId) {
+    public CursorPageDTO<SubscriptionDTO> getUserSubscriptions(Long userId, String cursor, Integer limit) {
         logger.info("Getting subscriptions for user ID: {}", userId);
         try {
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            if (!userRepository.existsById(userId)) {
+                throw new RuntimeException("User not found");
+            }
             
-            List<Subscription> subscriptions = subscriptionRepository.findByUserOrderByCreatedAtDesc(user);
-            logger.info("Found {} subscriptions for user {}", subscriptions.size(), userId);
+            int pageSize = KeysetCursor.pageSize(limit);
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            PageRequest page = PageRequest.of(0, pageSize + 1);
+            List<Subscription> subscriptions = after == null
+                    ? subscriptionRepository.findHistoryByUserId(userId, page)
+                    : subscriptionRepository.findHistoryByUserIdBefore(userId, after.createdAt(), after.id(), page);
+            logger.info("Found {} subscriptions for user {}", Math.min(subscriptions.size(), pageSize), userId);
             
-            return subscriptions.stream()
-                    .map(SubscriptionDTO::new)
-                    .toList();
+            return CursorPageDTO.of(subscriptions, pageSize,
+                    subscription -> new KeysetCursor(subscription.getCreatedAt(), subscription.getId()),
+                    rows -> rows.stream().map(SubscriptionDTO::new).toList());
         } catch (Exception e) {
             logger.error("Error getting user subscriptions for user {}: ", userId, e);
             throw e;
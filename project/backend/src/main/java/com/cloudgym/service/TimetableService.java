@@ -0,0 +1,291 @@
+package com.cloudgym.service;
+
+import com.cloudgym.dto.TimetableExceptionDTO;
+import com.cloudgym.dto.TimetableRuleDTO;
+import com.cloudgym.entity.Gym;
+import com.cloudgym.entity.TimeSlot;
+import com.cloudgym.entity.TimetableException;
+import com.cloudgym.entity.TimetableRule;
+import com.cloudgym.repository.GymRepository;
+import com.cloudgym.repository.TimeSlotRepository;
+import com.cloudgym.repository.TimetableExceptionRepository;
+import com.cloudgym.repository.TimetableRuleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recurring gym timetables. Rules and exceptions are stored once per gym and expanded
+ * into slot instances for a date on demand; expansions are kept in a bounded LRU
+ * cache and dropped whenever the gym's timetable changes. Fixed TimeSlot rows that do
+ * not back a rule keep behaving as daily slots.
+ */
+@Service
+public class TimetableService {
+
+    public static final int MAX_RANGE_DAYS = 62;
+
+    // Exceptions further back than this are not needed to expand current dates
+    private static final int EXCEPTION_LOOKBACK_DAYS = 7;
+
+    @Autowired
+    private TimetableRuleRepository timetableRuleRepository;
+
+    @Autowired
+    private TimetableExceptionRepository timetableExceptionRepository;
+
+    @Autowired
+    private TimeSlotRepository timeSlotRepository;
+
+    @Autowired
+    private GymRepository gymRepository;
+
+    private final Map<Long, GymTimetable> timetables = new ConcurrentHashMap<>();
+    private final Map<ExpansionKey, List<SlotInstance>> expansions;
+
+    public TimetableService(@Value("${timetable.expansion-cache-size:4096}") int expansionCacheSize) {
+        this.expansions = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ExpansionKey, List<SlotInstance>> eldest) {
+                return size() > expansionCacheSize;
+            }
+        });
+    }
+
+    public record SlotInstance(Long ruleId, Long timeSlotId, Long gymId, LocalDate date,
+                               LocalTime startTime, LocalTime endTime, int capacity, double price) {}
+
+    /** Slot instances the gym's rules produce on the date, ordered by start time. */
+    public List<SlotInstance> expand(Long gymId, LocalDate date) {
+        ExpansionKey key = new ExpansionKey(gymId, date);
+        List<SlotInstance> instances = expansions.get(key);
+        if (instances == null) {
+            instances = timetable(gymId).expand(gymId, date);
+            expansions.put(key, instances);
+        }
+        return instances;
+    }
+
+    public List<SlotInstance> expand(Long gymId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || from.plusDays(MAX_RANGE_DAYS).isBefore(to)) {
+            throw new RuntimeException("Date range must be between 1 and " + MAX_RANGE_DAYS + " days");
+        }
+        List<SlotInstance> instances = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            instances.addAll(expand(gymId, date));
+        }
+        return instances;
+    }
+
+    /** Ids of the TimeSlot rows that back a rule and therefore only exist on rule dates. */
+    public Set<Long> getRuleBackedSlotIds(Long gymId) {
+        return timetable(gymId).backingSlotIds();
+    }
+
+    /**
+     * Capacity of the slot on the date: the slot's own spots for a fixed slot, the
+     * expanded capacity for a rule-backed one, or empty if the rule does not run then.
+     */
+    public Optional<Integer> capacityFor(TimeSlot slot, LocalDate date) {
+        Long gymId = slot.getGym().getId();
+        if (!timetable(gymId).backingSlotIds().contains(slot.getId())) {
+            return Optional.of(slot.getTotalSpots());
+        }
+        return expand(gymId, date).stream()
+                .filter(instance -> instance.timeSlotId().equals(slot.getId()))
+                .findFirst()
+                .map(SlotInstance::capacity);
+    }
+
+    public List<TimetableRuleDTO> getRules(Long gymId) {
+        return timetableRuleRepository.findByGymId(gymId).stream()
+                .map(TimetableRuleDTO::new)
+                .toList();
+    }
+
+    public List<TimetableExceptionDTO> getExceptions(Long gymId, LocalDate from) {
+        return timetableExceptionRepository.findByGymIdFrom(gymId, from).stream()
+                .map(TimetableExceptionDTO::new)
+                .toList();
+    }
+
+    @Transactional
+    public TimetableRuleDTO createRule(Long gymId, Set<DayOfWeek> daysOfWeek, LocalTime startTime, LocalTime endTime,
+                                       Integer totalSpots, Double price, LocalDate validFrom, LocalDate validUntil) {
+        if (daysOfWeek.isEmpty()) {
+            throw new RuntimeException("At least one day of the week is required");
+        }
+        if (!startTime.isBefore(endTime)) {
+            throw new RuntimeException("Start time must be before end time");
+        }
+        if (totalSpots == null || totalSpots <= 0 || price == null || price < 0) {
+            throw new RuntimeException("Valid spots and price are required");
+        }
+        if (validFrom != null && validUntil != null && validUntil.isBefore(validFrom)) {
+            throw new RuntimeException("Rule must be valid for at least one day");
+        }
+
+        Gym gym = gymRepository.findById(gymId)
+                .orElseThrow(() -> new RuntimeException("Gym not found"));
+
+        // The backing slot is what bookings, QR tokens and the waitlist refer to
+        TimeSlot timeSlot = timeSlotRepository.save(new TimeSlot(gym, startTime, endTime, totalSpots, price));
+
+        TimetableRule rule = new TimetableRule();
+        rule.setGym(gym);
+        rule.setTimeSlot(timeSlot);
+        rule.setWeekdayMask(TimetableRule.maskOf(daysOfWeek));
+        rule.setStartTime(startTime);
+        rule.setEndTime(endTime);
+        rule.setTotalSpots(totalSpots);
+        rule.setPrice(price);
+        rule.setValidFrom(validFrom);
+        rule.setValidUntil(validUntil);
+        TimetableRule savedRule = timetableRuleRepository.save(rule);
+
+        invalidateAfterCommit(gymId);
+        return new TimetableRuleDTO(savedRule);
+    }
+
+    /** Stops a rule from producing new dates; existing bookings on its slot are kept. */
+    @Transactional
+    public TimetableRuleDTO deactivateRule(Long gymId, Long ruleId) {
+        TimetableRule rule = timetableRuleRepository.findById(ruleId)
+                .filter(r -> r.getGym().getId().equals(gymId))
+                .orElseThrow(() -> new RuntimeException("Timetable rule not found"));
+        rule.setActive(false);
+        TimetableRule savedRule = timetableRuleRepository.save(rule);
+
+        invalidateAfterCommit(gymId);
+        return new TimetableRuleDTO(savedRule);
+    }
+
+    @Transactional
+    public TimetableExceptionDTO addException(Long gymId, Long ruleId, LocalDate date, Integer capacityOverride,
+                                              String reason) {
+        if (capacityOverride != null && capacityOverride < 0) {
+            throw new RuntimeException("Capacity override cannot be negative");
+        }
+        Gym gym = gymRepository.findById(gymId)
+                .orElseThrow(() -> new RuntimeException("Gym not found"));
+
+        TimetableException exception = new TimetableException();
+        exception.setGym(gym);
+        if (ruleId != null) {
+            exception.setRule(timetableRuleRepository.findById(ruleId)
+                    .filter(r -> r.getGym().getId().equals(gymId))
+                    .orElseThrow(() -> new RuntimeException("Timetable rule not found")));
+        }
+        exception.setExceptionDate(date);
+        exception.setCapacityOverride(capacityOverride);
+        exception.setReason(reason);
+        TimetableException savedException = timetableExceptionRepository.save(exception);
+
+        invalidateAfterCommit(gymId);
+        return new TimetableExceptionDTO(savedException);
+    }
+
+    private GymTimetable timetable(Long gymId) {
+        GymTimetable timetable = timetables.get(gymId);
+        if (timetable == null) {
+            timetable = load(gymId);
+            timetables.put(gymId, timetable);
+        }
+        return timetable;
+    }
+
+    private GymTimetable load(Long gymId) {
+        List<RuleSnapshot> rules = new ArrayList<>();
+        Set<Long> backingSlotIds = new HashSet<>();
+        for (TimetableRule rule : timetableRuleRepository.findByGymId(gymId)) {
+            backingSlotIds.add(rule.getTimeSlot().getId());
+            if (Boolean.TRUE.equals(rule.getActive())) {
+                rules.add(new RuleSnapshot(rule.getId(), rule.getTimeSlot().getId(), rule.getWeekdayMask(),
+                        rule.getStartTime(), rule.getEndTime(), rule.getTotalSpots(), rule.getPrice(),
+                        rule.getValidFrom(), rule.getValidUntil()));
+            }
+        }
+
+        // A null value marks the slot as closed that day, so presence is checked with containsKey
+        Map<ExceptionKey, Integer> exceptions = new HashMap<>();
+        if (!rules.isEmpty()) {
+            LocalDate from = LocalDate.now().minusDays(EXCEPTION_LOOKBACK_DAYS);
+            for (TimetableException exception : timetableExceptionRepository.findByGymIdFrom(gymId, from)) {
+                Long ruleId = exception.getRule() != null ? exception.getRule().getId() : null;
+                exceptions.put(new ExceptionKey(exception.getExceptionDate(), ruleId), exception.getCapacityOverride());
+            }
+        }
+        return new GymTimetable(rules, Collections.unmodifiableSet(backingSlotIds), exceptions);
+    }
+
+    private void invalidateAfterCommit(Long gymId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                timetables.remove(gymId);
+                synchronized (expansions) {
+                    expansions.keySet().removeIf(key -> key.gymId().equals(gymId));
+                }
+            }
+        });
+    }
+
+    private record ExpansionKey(Long gymId, LocalDate date) {}
+
+    private record ExceptionKey(LocalDate date, Long ruleId) {}
+
+    private record RuleSnapshot(Long id, Long timeSlotId, int weekdayMask, LocalTime startTime, LocalTime endTime,
+                                int totalSpots, double price, LocalDate validFrom, LocalDate validUntil) {
+
+        boolean runsOn(LocalDate date) {
+            return (weekdayMask & (1 << (date.getDayOfWeek().getValue() - 1))) != 0
+                    && (validFrom == null || !date.isBefore(validFrom))
+                    && (validUntil == null || !date.isAfter(validUntil));
+        }
+    }
+
+    private record GymTimetable(List<RuleSnapshot> rules, Set<Long> backingSlotIds,
+                                Map<ExceptionKey, Integer> exceptions) {
+
+        List<SlotInstance> expand(Long gymId, LocalDate date) {
+            List<SlotInstance> instances = new ArrayList<>();
+            for (RuleSnapshot rule : rules) {
+                if (!rule.runsOn(date)) {
+                    continue;
+                }
+                int capacity = rule.totalSpots();
+                ExceptionKey ruleException = new ExceptionKey(date, rule.id());
+                ExceptionKey gymException = new ExceptionKey(date, null);
+                if (exceptions.containsKey(ruleException) || exceptions.containsKey(gymException)) {
+                    Integer override = exceptions.containsKey(ruleException)
+                            ? exceptions.get(ruleException)
+                            : exceptions.get(gymException);
+                    if (override == null) {
+                        continue;
+                    }
+                    capacity = override;
+                }
+                instances.add(new SlotInstance(rule.id(), rule.timeSlotId(), gymId, date,
+                        rule.startTime(), rule.endTime(), capacity, rule.price()));
+            }
+            instances.sort((a, b) -> a.startTime().compareTo(b.startTime()));
+            return List.copyOf(instances);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.cloudgym.service;
+
+import com.cloudgym.dto.BookingDTO;
+import com.cloudgym.dto.CursorPageDTO;
+import com.cloudgym.entity.ArchivedBooking;
+import com.cloudgym.entity.Booking;
+import com.cloudgym.entity.UserBookingView;
+import com.cloudgym.repository.ArchivedBookingRepository;
+import com.cloudgym.repository.BookingRepository;
+import com.cloudgym.repository.GymRepository;
+import com.cloudgym.repository.UserBookingViewRepository;
+import com.cloudgym.repository.UserRepository;
+import com.cloudgym.util.KeysetCursor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Denormalized "my bookings" read model: one row per user holding their latest
+ * bookings as a JSON document with gym and slot details already filled in, so the
+ * bookings screen is a single primary-key lookup. Single-booking changes patch the
+ * document in the same transaction as the booking; bulk paths drop it instead and
+ * the next read rebuilds it from the bookings table.
+ */
+@Service
+public class UserBookingViewService {
+
+    public static final int MAX_ENTRIES = KeysetCursor.MAX_PAGE_SIZE;
+
+    private static final TypeReference<List<BookingDTO>> ENTRIES = new TypeReference<>() {};
+
+    @Autowired
+    private UserBookingViewRepository viewRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Autowired
+    private GymRepository gymRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /** Newest bookings for the user, served from the view and rebuilt on a miss. */
+    @Transactional
+    public CursorPageDTO<BookingDTO> getFirstPage(Long userId, int pageSize) {
+        List<BookingDTO> entries;
+        boolean hasMore;
+        Optional<UserBookingView> view = viewRepository.findById(userId);
+        if (view.isPresent()) {
+            entries = readEntries(view.get().getDocument());
+            hasMore = view.get().getHasMore();
+        } else {
+            if (!userRepository.existsById(userId)) {
+                throw new RuntimeException("User not found");
+            }
+            View built = build(userId);
+            entries = built.entries();
+            hasMore = built.hasMore();
+        }
+
+        if (entries.size() <= pageSize && !hasMore) {
+            return new CursorPageDTO<>(entries, null);
+        }
+        List<BookingDTO> page = entries.subList(0, Math.min(pageSize, entries.size()));
+        if (page.isEmpty()) {
+            return new CursorPageDTO<>(page, null);
+        }
+        BookingDTO last = page.get(page.size() - 1);
+        return new CursorPageDTO<>(page, new KeysetCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    /**
+     * Writes the booking's current state into its owner's view. Runs in the caller's
+     * transaction and locks the view row, so concurrent changes for one user apply in turn.
+     */
+    @Transactional
+    public void apply(Booking booking) {
+        Long userId = booking.getUser().getId();
+        Optional<UserBookingView> existing = viewRepository.findForUpdate(userId);
+        if (existing.isEmpty()) {
+            // Build the whole view now; this transaction already sees the changed booking
+            build(userId);
+            return;
+        }
+
+        UserBookingView view = existing.get();
+        List<BookingDTO> entries = new ArrayList<>(readEntries(view.getDocument()));
+        entries.removeIf(entry -> entry.getId().equals(booking.getId()));
+        entries.add(BookingDTO.historyEntry(booking));
+        entries.sort(BookingDTO.NEWEST_FIRST);
+        if (entries.size() > MAX_ENTRIES) {
+            entries = entries.subList(0, MAX_ENTRIES);
+            view.setHasMore(true);
+        }
+        view.setDocument(writeEntries(entries));
+        viewRepository.save(view);
+    }
+
+    @Transactional
+    public void invalidate(Long userId) {
+        viewRepository.deleteByUserId(userId);
+    }
+
+    @Transactional
+    public void invalidateForBookingsOn(LocalDate bookingDate, Booking.BookingStatus status) {
+        viewRepository.deleteByBookingDateAndStatus(bookingDate, status.name());
+    }
+
+    @Transactional
+    public void invalidateForBookings(Collection<Long> bookingIds) {
+        if (!bookingIds.isEmpty()) {
+            viewRepository.deleteByBookingIds(bookingIds);
+        }
+    }
+
+    /**
+     * Builds the view from the newest hot and archived bookings and stores it unless
+     * another transaction stored one first.
+     */
+    private View build(Long userId) {
+        PageRequest newest = PageRequest.of(0, MAX_ENTRIES + 1);
+        List<Booking> bookings = bookingRepository.findHistoryByUserId(userId, newest);
+        List<ArchivedBooking> archived = archivedBookingRepository.findHistoryByUserId(userId, newest);
+
+        Set<Long> gymIds = new HashSet<>();
+        bookings.forEach(booking -> gymIds.add(booking.getGym().getId()));
+        archived.forEach(booking -> gymIds.add(booking.getGym().getId()));
+        fetchImages(gymIds);
+
+        List<BookingDTO> entries = new ArrayList<>();
+        bookings.forEach(booking -> entries.add(BookingDTO.historyEntry(booking)));
+        archived.forEach(booking -> entries.add(BookingDTO.historyEntry(booking)));
+        entries.sort(BookingDTO.NEWEST_FIRST);
+        boolean hasMore = entries.size() > MAX_ENTRIES;
+        List<BookingDTO> kept = hasMore ? entries.subList(0, MAX_ENTRIES) : entries;
+        viewRepository.insertIfAbsent(userId, writeEntries(kept), hasMore, LocalDateTime.now());
+        return new View(kept, hasMore);
+    }
+
+    /**
+     * History entries for older pages, in the same shape as the document. Gym and
+     * time slot must be fetch-joined; the gyms' images are loaded with one query for
+     * the whole list, so the number of statements does not grow with the page.
+     */
+    public List<BookingDTO> toEntries(List<Booking> bookings) {
+        fetchImages(bookings.stream().map(booking -> booking.getGym().getId()).collect(Collectors.toSet()));
+        return bookings.stream().map(BookingDTO::historyEntry).toList();
+    }
+
+    public List<BookingDTO> toArchivedEntries(List<ArchivedBooking> bookings) {
+        fetchImages(bookings.stream().map(booking -> booking.getGym().getId()).collect(Collectors.toSet()));
+        return bookings.stream().map(BookingDTO::historyEntry).toList();
+    }
+
+    private void fetchImages(Set<Long> gymIds) {
+        if (!gymIds.isEmpty()) {
+            gymRepository.fetchImages(gymIds);
+        }
+    }
+
+    private List<BookingDTO> readEntries(String document) {
+        try {
+            return objectMapper.readValue(document, ENTRIES);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Corrupt booking view document", e);
+        }
+    }
+
+    private String writeEntries(List<BookingDTO> entries) {
+        try {
+            return objectMapper.writeValueAsString(entries);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize booking view", e);
+        }
+    }
+
+    private record View(List<BookingDTO> entries, boolean hasMore) {}
+}
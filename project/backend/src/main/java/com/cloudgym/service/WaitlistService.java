@@ -0,0 +1,253 @@
+package com.cloudgym.service;
+
+import com.cloudgym.dto.WaitlistEntryDTO;
+import com.cloudgym.entity.Gym;
+import com.cloudgym.entity.TimeSlot;
+import com.cloudgym.entity.User;
+import com.cloudgym.entity.WaitlistEntry;
+import com.cloudgym.repository.BookingRepository;
+import com.cloudgym.repository.GymRepository;
+import com.cloudgym.repository.TimeSlotRepository;
+import com.cloudgym.repository.UserRepository;
+import com.cloudgym.repository.WaitlistEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Per (slot, date) waitlists. The waitlist_entries table is the source of truth;
+ * each queue is loaded from it on first use and then kept in memory ordered by
+ * join time, so promotion on cancellation does not need to re-query the table.
+ */
+@Service
+public class WaitlistService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistService.class);
+
+    private static final Comparator<QueuedEntry> QUEUE_ORDER =
+            Comparator.comparing(QueuedEntry::createdAt).thenComparing(QueuedEntry::entryId);
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GymRepository gymRepository;
+
+    @Autowired
+    private TimeSlotRepository timeSlotRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TimetableService timetableService;
+
+    private final Map<WaitlistKey, PriorityQueue<QueuedEntry>> queues = new ConcurrentHashMap<>();
+
+    @Transactional
+    public WaitlistEntryDTO joinWaitlist(Long userId, Long gymId, Long timeSlotId, LocalDate bookingDate) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        Gym gym = gymRepository.findById(gymId)
+                .orElseThrow(() -> new RuntimeException("Gym not found"));
+
+        TimeSlot timeSlot = timeSlotRepository.findById(timeSlotId)
+                .orElseThrow(() -> new RuntimeException("Time slot not found"));
+
+        if (bookingDate.isBefore(LocalDate.now())) {
+            throw new RuntimeException("Cannot join the waitlist for a past date");
+        }
+
+        if (!timeSlot.getGym().getId().equals(gym.getId())) {
+            throw new RuntimeException("Time slot does not belong to gym");
+        }
+
+        // Only a full slot has a waitlist; an open one should simply be booked
+        int capacity = timetableService.capacityFor(timeSlot, bookingDate)
+                .orElseThrow(() -> new RuntimeException("Time slot is not offered on this date"));
+        if (bookingRepository.countReservedBookingsByTimeSlotAndDate(timeSlotId, bookingDate) < capacity) {
+            throw new RuntimeException("Time slot still has available spots");
+        }
+
+        if (waitlistEntryRepository.existsWaitingEntry(userId, timeSlotId, bookingDate)) {
+            throw new RuntimeException("User is already on the waitlist for this slot");
+        }
+
+        // Queues for past dates can never be promoted again
+        queues.keySet().removeIf(k -> k.bookingDate().isBefore(LocalDate.now()));
+
+        WaitlistEntry savedEntry = waitlistEntryRepository.save(new WaitlistEntry(user, gym, timeSlot, bookingDate));
+        WaitlistKey key = new WaitlistKey(timeSlotId, bookingDate);
+        QueuedEntry queued = new QueuedEntry(savedEntry.getId(), savedEntry.getCreatedAt());
+
+        // Only make the entry visible to promotion once the row is committed
+        afterCommit(() -> {
+            PriorityQueue<QueuedEntry> queue = queueFor(key);
+            synchronized (queue) {
+                if (queue.stream().noneMatch(q -> q.entryId().equals(queued.entryId()))) {
+                    queue.offer(queued);
+                }
+            }
+        });
+
+        logger.info("User {} joined waitlist for slot {} on {}", userId, timeSlotId, bookingDate);
+        WaitlistEntryDTO dto = new WaitlistEntryDTO(savedEntry);
+        dto.setPosition(positionOf(key, queued) + 1);
+        return dto;
+    }
+
+    @Transactional
+    public void leaveWaitlist(Long entryId, Long userId) {
+        WaitlistEntry entry = waitlistEntryRepository.findById(entryId)
+                .orElseThrow(() -> new RuntimeException("Waitlist entry not found"));
+
+        if (!entry.getUser().getId().equals(userId)) {
+            throw new RuntimeException("Waitlist entry does not belong to user");
+        }
+
+        if (entry.getStatus() != WaitlistEntry.WaitlistStatus.WAITING) {
+            throw new RuntimeException("Waitlist entry is no longer waiting");
+        }
+
+        entry.setStatus(WaitlistEntry.WaitlistStatus.CANCELLED);
+        waitlistEntryRepository.save(entry);
+
+        WaitlistKey key = new WaitlistKey(entry.getTimeSlot().getId(), entry.getBookingDate());
+        afterCommit(() -> {
+            PriorityQueue<QueuedEntry> queue = queues.get(key);
+            if (queue != null) {
+                synchronized (queue) {
+                    queue.removeIf(q -> q.entryId().equals(entryId));
+                }
+            }
+        });
+    }
+
+    public List<WaitlistEntryDTO> getUserWaitlist(Long userId) {
+        return waitlistEntryRepository.findWaitingByUserId(userId).stream()
+                .map(entry -> {
+                    WaitlistEntryDTO dto = new WaitlistEntryDTO(entry);
+                    WaitlistKey key = new WaitlistKey(entry.getTimeSlot().getId(), entry.getBookingDate());
+                    dto.setPosition(positionOf(key, new QueuedEntry(entry.getId(), entry.getCreatedAt())) + 1);
+                    return dto;
+                })
+                .toList();
+    }
+
+    /**
+     * Takes the next waiting entry for the slot that {@code eligible} accepts and
+     * marks it PROMOTED within the caller's transaction. Entries it rejects keep
+     * their place in the queue. If that transaction rolls back, the promoted entry
+     * is put back at the head of the in-memory queue.
+     */
+    @Transactional
+    public Optional<WaitlistEntry> promoteNext(Long timeSlotId, LocalDate bookingDate, Predicate<WaitlistEntry> eligible) {
+        WaitlistKey key = new WaitlistKey(timeSlotId, bookingDate);
+        PriorityQueue<QueuedEntry> queue = queueFor(key);
+
+        synchronized (queue) {
+            List<QueuedEntry> skipped = new ArrayList<>();
+            try {
+                return pollEligible(queue, skipped, timeSlotId, bookingDate, eligible);
+            } finally {
+                skipped.forEach(queue::offer);
+            }
+        }
+    }
+
+    private Optional<WaitlistEntry> pollEligible(PriorityQueue<QueuedEntry> queue, List<QueuedEntry> skipped,
+                                                 Long timeSlotId, LocalDate bookingDate,
+                                                 Predicate<WaitlistEntry> eligible) {
+        QueuedEntry next;
+        while ((next = queue.poll()) != null) {
+            Optional<WaitlistEntry> entry = waitlistEntryRepository.findById(next.entryId());
+            if (entry.isEmpty() || entry.get().getStatus() != WaitlistEntry.WaitlistStatus.WAITING) {
+                continue;
+            }
+            if (!eligible.test(entry.get())) {
+                skipped.add(next);
+                continue;
+            }
+
+            QueuedEntry polled = next;
+            afterRollback(() -> {
+                synchronized (queue) {
+                    queue.offer(polled);
+                }
+            });
+
+            WaitlistEntry promoted = entry.get();
+            promoted.setStatus(WaitlistEntry.WaitlistStatus.PROMOTED);
+            logger.info("Promoting waitlist entry {} for slot {} on {}", promoted.getId(), timeSlotId, bookingDate);
+            return Optional.of(waitlistEntryRepository.save(promoted));
+        }
+        return Optional.empty();
+    }
+
+    private PriorityQueue<QueuedEntry> queueFor(WaitlistKey key) {
+        return queues.computeIfAbsent(key, k -> {
+            PriorityQueue<QueuedEntry> queue = new PriorityQueue<>(QUEUE_ORDER);
+            waitlistEntryRepository.findWaitingByTimeSlotAndDate(k.timeSlotId(), k.bookingDate())
+                    .forEach(entry -> queue.offer(new QueuedEntry(entry.getId(), entry.getCreatedAt())));
+            return queue;
+        });
+    }
+
+    private int positionOf(WaitlistKey key, QueuedEntry target) {
+        PriorityQueue<QueuedEntry> queue = queueFor(key);
+        synchronized (queue) {
+            return (int) queue.stream()
+                    .filter(q -> QUEUE_ORDER.compare(q, target) < 0)
+                    .count();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private record WaitlistKey(Long timeSlotId, LocalDate bookingDate) {}
+
+    private record QueuedEntry(Long entryId, LocalDateTime createdAt) {}
+}
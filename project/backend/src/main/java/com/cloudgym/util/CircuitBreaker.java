@@ -0,0 +1,112 @@
+package com.cloudgym.util;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker. Outcomes of the last {@code windowSize} calls are kept
+ * in a ring; once at least {@code minimumCalls} are recorded and the failure rate
+ * reaches the threshold the breaker opens and rejects calls for {@code openMillis}.
+ * After that a single trial call is let through (half-open): success closes the
+ * breaker, failure opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openMillis;
+    private final LongSupplier clock;
+
+    private final boolean[] failures;
+    private int recorded;
+    private int next;
+    private int failureCount;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(double failureRateThreshold, int windowSize, int minimumCalls, long openMillis) {
+        this(failureRateThreshold, windowSize, minimumCalls, openMillis, System::currentTimeMillis);
+    }
+
+    public CircuitBreaker(double failureRateThreshold, int windowSize, int minimumCalls, long openMillis,
+                          LongSupplier clock) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.failures = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /** Returns whether a call may proceed; every permitted call must report its outcome. */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            reset();
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (recorded >= minimumCalls && (double) failureCount / recorded >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == failures.length) {
+            if (failures[next]) {
+                failureCount--;
+            }
+        } else {
+            recorded++;
+        }
+        failures[next] = failure;
+        if (failure) {
+            failureCount++;
+        }
+        next = (next + 1) % failures.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+        trialInFlight = false;
+    }
+
+    private void reset() {
+        state = State.CLOSED;
+        recorded = 0;
+        next = 0;
+        failureCount = 0;
+        trialInFlight = false;
+        Arrays.fill(failures, false);
+    }
+}
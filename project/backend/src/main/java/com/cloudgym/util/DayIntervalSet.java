@@ -0,0 +1,110 @@
+package com.cloudgym.util;
+
+import java.util.Arrays;
+
+/**
+ * One user's booked [start, end) ranges within a day, in minutes since midnight,
+ * kept as parallel primitive arrays sorted by start. A running maximum of the end
+ * points lets {@link #overlaps} answer with one binary search even if the set
+ * already holds overlapping ranges loaded from older data.
+ */
+public class DayIntervalSet {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private int[] starts = new int[4];
+    private int[] ends = new int[4];
+    private long[] ids = new long[4];
+    // maxEnds[i] is the largest end among ranges 0..i
+    private int[] maxEnds = new int[4];
+    private int size;
+
+    public synchronized boolean overlaps(int start, int end) {
+        // Ranges starting at or after our end cannot overlap, all earlier ones might
+        int before = lowerBound(end);
+        return before > 0 && maxEnds[before - 1] > start;
+    }
+
+    /** Adds the range unless it overlaps an existing one; returns whether it was added. */
+    public synchronized boolean addIfFree(long id, int start, int end) {
+        if (overlaps(start, end)) {
+            return false;
+        }
+        add(id, start, end);
+        return true;
+    }
+
+    /** Adds the range; adding an id that is already present is a no-op. */
+    public synchronized void add(long id, int start, int end) {
+        if (indexOf(id) >= 0) {
+            return;
+        }
+        if (size == starts.length) {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            maxEnds = Arrays.copyOf(maxEnds, capacity);
+        }
+        int index = lowerBound(start);
+        System.arraycopy(starts, index, starts, index + 1, size - index);
+        System.arraycopy(ends, index, ends, index + 1, size - index);
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        starts[index] = start;
+        ends[index] = end;
+        ids[index] = id;
+        size++;
+        recomputeMaxEnds(index);
+    }
+
+    public synchronized boolean remove(long id) {
+        int i = indexOf(id);
+        if (i < 0) {
+            return false;
+        }
+        System.arraycopy(starts, i + 1, starts, i, size - i - 1);
+        System.arraycopy(ends, i + 1, ends, i, size - i - 1);
+        System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+        size--;
+        recomputeMaxEnds(i);
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Maps a time range to minutes, treating an end at or before the start as midnight. */
+    public static int[] toMinutes(int startMinute, int endMinute) {
+        return new int[] { startMinute, endMinute > startMinute ? endMinute : MINUTES_PER_DAY };
+    }
+
+    private int indexOf(long id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int lowerBound(int value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void recomputeMaxEnds(int from) {
+        for (int i = from; i < size; i++) {
+            maxEnds[i] = i == 0 ? ends[0] : Math.max(maxEnds[i - 1], ends[i]);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.cloudgym.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel. Level 0 has {@code wheelSize} buckets of {@code tickMs};
+ * every further level has buckets as wide as the whole level below it, and levels
+ * are added on demand. Scheduling and cancelling are O(1); advancing the clock only
+ * touches the buckets whose time has come, cascading entries from coarse levels into
+ * finer ones as they get closer to expiry.
+ *
+ * The wheel has no thread of its own: callers drive it with {@link #advanceClock(long)}.
+ * All methods are thread-safe.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final List<Level> levels = new ArrayList<>();
+    private final Bucket due = new Bucket();
+    private long currentTime;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize <= 1) {
+            throw new IllegalArgumentException("tickMs must be positive and wheelSize greater than one");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTime = startMs - (startMs % tickMs);
+        this.levels.add(new Level(tickMs));
+    }
+
+    /**
+     * Schedules {@code payload} to expire at {@code expirationMs}. Entries that are
+     * already due are returned by the next {@link #advanceClock(long)} call.
+     */
+    public synchronized Timeout schedule(T payload, long expirationMs) {
+        Timeout timeout = new Timeout(payload, expirationMs);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Moves the wheel forward to {@code nowMs} and hands every expired payload to
+     * {@code onExpired}. The callback runs after the wheel's lock is released.
+     */
+    public void advanceClock(long nowMs, Consumer<T> onExpired) {
+        List<T> expired = new ArrayList<>();
+        synchronized (this) {
+            drainDue(expired);
+            while (currentTime + tickMs <= nowMs) {
+                currentTime += tickMs;
+
+                // The finest bucket that just ended holds only expired entries
+                for (Timeout t : levels.get(0).bucketFor(currentTime - tickMs).drain()) {
+                    expire(t, expired);
+                }
+
+                // Coarser buckets whose window starts now are cascaded into finer levels.
+                // This must happen after the drain above, as the ended finest bucket is
+                // also the one that receives entries due in the last tick of this window.
+                for (int i = levels.size() - 1; i >= 1; i--) {
+                    Level level = levels.get(i);
+                    if (currentTime % level.tickMs == 0) {
+                        for (Timeout t : level.bucketFor(currentTime).drain()) {
+                            place(t);
+                        }
+                    }
+                }
+                drainDue(expired);
+            }
+        }
+        expired.forEach(onExpired);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void drainDue(List<T> expired) {
+        for (Timeout t : due.drain()) {
+            expire(t, expired);
+        }
+    }
+
+    private void expire(Timeout t, List<T> expired) {
+        t.bucket = null;
+        t.expired = true;
+        size--;
+        expired.add(t.payload);
+    }
+
+    private void place(Timeout t) {
+        if (t.expirationMs < currentTime) {
+            due.add(t);
+            return;
+        }
+        for (int i = 0; ; i++) {
+            if (i == levels.size()) {
+                levels.add(new Level(levels.get(i - 1).tickMs * wheelSize));
+            }
+            Level level = levels.get(i);
+            long levelStart = currentTime - (currentTime % level.tickMs);
+            if (t.expirationMs < levelStart + level.tickMs * wheelSize) {
+                level.bucketFor(t.expirationMs).add(t);
+                return;
+            }
+        }
+    }
+
+    private final class Level {
+        private final long tickMs;
+        private final List<Bucket> buckets;
+
+        private Level(long tickMs) {
+            this.tickMs = tickMs;
+            this.buckets = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                buckets.add(new Bucket());
+            }
+        }
+
+        private Bucket bucketFor(long timeMs) {
+            return buckets.get((int) ((timeMs / tickMs) % wheelSize));
+        }
+    }
+
+    /** Intrusive doubly linked list so that cancellation is O(1). */
+    private final class Bucket {
+        private Timeout head;
+
+        private void add(Timeout t) {
+            t.bucket = this;
+            t.prev = null;
+            t.next = head;
+            if (head != null) {
+                head.prev = t;
+            }
+            head = t;
+        }
+
+        private void remove(Timeout t) {
+            if (t.prev != null) {
+                t.prev.next = t.next;
+            } else {
+                head = t.next;
+            }
+            if (t.next != null) {
+                t.next.prev = t.prev;
+            }
+            t.prev = null;
+            t.next = null;
+            t.bucket = null;
+        }
+
+        private List<Timeout> drain() {
+            List<Timeout> drained = new ArrayList<>();
+            Timeout t = head;
+            while (t != null) {
+                Timeout next = t.next;
+                t.prev = null;
+                t.next = null;
+                t.bucket = null;
+                drained.add(t);
+                t = next;
+            }
+            head = null;
+            return drained;
+        }
+    }
+
+    public final class Timeout {
+        private final T payload;
+        private final long expirationMs;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+        private boolean expired;
+
+        private Timeout(T payload, long expirationMs) {
+            this.payload = payload;
+            this.expirationMs = expirationMs;
+        }
+
+        public T getPayload() { return payload; }
+        public long getExpirationMs() { return expirationMs; }
+
+        /** Returns false if the entry already expired or was cancelled. */
+        public boolean cancel() {
+            synchronized (HierarchicalTimingWheel.this) {
+                if (expired || bucket == null) {
+                    return false;
+                }
+                bucket.remove(this);
+                expired = true;
+                size--;
+                return true;
+            }
+        }
+    }
+}
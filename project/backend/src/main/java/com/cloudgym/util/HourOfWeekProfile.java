@@ -0,0 +1,71 @@
+package com.cloudgym.util;
+
+import java.nio.ByteBuffer;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+
+/**
+ * Rolling mean occupancy for each of the 168 hours of the week. Every hour keeps a
+ * running mean whose weight is capped at {@code maxSamples}, so the profile follows
+ * the most recent weeks instead of averaging over all history. Encodes to a fixed
+ * 1008-byte array (a float mean and a short sample count per hour).
+ */
+public class HourOfWeekProfile {
+
+    public static final int HOURS_PER_WEEK = 7 * 24;
+    public static final int ENCODED_SIZE = HOURS_PER_WEEK * (Float.BYTES + Short.BYTES);
+
+    private final float[] means = new float[HOURS_PER_WEEK];
+    private final short[] samples = new short[HOURS_PER_WEEK];
+    private final int maxSamples;
+
+    public HourOfWeekProfile(int maxSamples) {
+        this.maxSamples = Math.min(maxSamples, Short.MAX_VALUE);
+    }
+
+    public static int hourOfWeek(DayOfWeek day, int hour) {
+        return (day.getValue() - 1) * 24 + hour;
+    }
+
+    public static int hourOfWeek(LocalDateTime time) {
+        return hourOfWeek(time.getDayOfWeek(), time.getHour());
+    }
+
+    public synchronized void add(int hourOfWeek, double value) {
+        int n = samples[hourOfWeek];
+        means[hourOfWeek] += (float) ((value - means[hourOfWeek]) / (n + 1));
+        if (n < maxSamples) {
+            samples[hourOfWeek] = (short) (n + 1);
+        }
+    }
+
+    /** Returns the mean for the hour, or null if it has never been sampled. */
+    public synchronized Double mean(int hourOfWeek) {
+        return samples[hourOfWeek] > 0 ? (double) means[hourOfWeek] : null;
+    }
+
+    public synchronized int samples(int hourOfWeek) {
+        return samples[hourOfWeek];
+    }
+
+    public synchronized byte[] encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_SIZE);
+        for (int i = 0; i < HOURS_PER_WEEK; i++) {
+            buffer.putFloat(means[i]);
+            buffer.putShort(samples[i]);
+        }
+        return buffer.array();
+    }
+
+    public static HourOfWeekProfile decode(byte[] encoded, int maxSamples) {
+        HourOfWeekProfile profile = new HourOfWeekProfile(maxSamples);
+        if (encoded != null && encoded.length == ENCODED_SIZE) {
+            ByteBuffer buffer = ByteBuffer.wrap(encoded);
+            for (int i = 0; i < HOURS_PER_WEEK; i++) {
+                profile.means[i] = buffer.getFloat();
+                profile.samples[i] = buffer.getShort();
+            }
+        }
+        return profile;
+    }
+}
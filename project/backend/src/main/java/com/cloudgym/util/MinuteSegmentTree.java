@@ -0,0 +1,63 @@
+package com.cloudgym.util;
+
+/**
+ * Segment tree over the minutes of one day with lazy range-add and range-max, used
+ * to count how many bookings overlap each minute. Both operations are O(log n) in
+ * the number of minutes. Not thread-safe; callers synchronize on the instance.
+ */
+public class MinuteSegmentTree {
+
+    private final int size;
+    private final int[] max;
+    private final int[] pending;
+
+    public MinuteSegmentTree(int size) {
+        this.size = size;
+        this.max = new int[4 * size];
+        this.pending = new int[4 * size];
+    }
+
+    /** Adds {@code delta} to every minute in [from, to). */
+    public void add(int from, int to, int delta) {
+        if (from < to) {
+            add(1, 0, size, Math.max(0, from), Math.min(size, to), delta);
+        }
+    }
+
+    /** Returns the largest value over the minutes in [from, to). */
+    public int max(int from, int to) {
+        return from < to ? max(1, 0, size, Math.max(0, from), Math.min(size, to)) : 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void add(int node, int low, int high, int from, int to, int delta) {
+        if (to <= low || high <= from) {
+            return;
+        }
+        if (from <= low && high <= to) {
+            max[node] += delta;
+            pending[node] += delta;
+            return;
+        }
+        int mid = (low + high) >>> 1;
+        add(2 * node, low, mid, from, to, delta);
+        add(2 * node + 1, mid, high, from, to, delta);
+        max[node] = Math.max(max[2 * node], max[2 * node + 1]) + pending[node];
+    }
+
+    // Pending adds stay on the node that received them and are added on the way up
+    private int max(int node, int low, int high, int from, int to) {
+        if (to <= low || high <= from) {
+            return Integer.MIN_VALUE;
+        }
+        if (from <= low && high <= to) {
+            return max[node];
+        }
+        int mid = (low + high) >>> 1;
+        int below = Math.max(max(2 * node, low, mid, from, to), max(2 * node + 1, mid, high, from, to));
+        return below + pending[node];
+    }
+}
@@ -0,0 +1,51 @@
+package com.cloudgym.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size ring of per-minute samples backed by primitive arrays. Each slot stores
+ * the sample and the epoch minute it was taken at, so gaps (minutes with no sample)
+ * are detected on read instead of being back-filled on write.
+ */
+public class OccupancyRingBuffer {
+
+    private final int[] values;
+    private final int[] minutes;
+    private int latestMinute = -1;
+
+    public OccupancyRingBuffer(int capacity) {
+        this.values = new int[capacity];
+        this.minutes = new int[capacity];
+        Arrays.fill(minutes, -1);
+    }
+
+    public synchronized void record(int epochMinute, int value) {
+        int index = Math.floorMod(epochMinute, values.length);
+        values[index] = value;
+        minutes[index] = epochMinute;
+        latestMinute = Math.max(latestMinute, epochMinute);
+    }
+
+    /**
+     * Returns the last {@code count} minutes ending at the newest sample, oldest first.
+     * Minutes without a sample are reported as -1.
+     */
+    public synchronized int[] recent(int count) {
+        int length = Math.min(count, values.length);
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            int minute = latestMinute - (length - 1 - i);
+            int index = Math.floorMod(minute, values.length);
+            result[i] = latestMinute >= 0 && minutes[index] == minute ? values[index] : -1;
+        }
+        return result;
+    }
+
+    public synchronized int getLatestMinute() {
+        return latestMinute;
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+}
@@ -0,0 +1,145 @@
+package com.cloudgym.util;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory table of effective prices per (slot, date). Each entry keeps the inputs
+ * of the pricing formula and the resulting price; a reservation change adjusts one
+ * entry and reprices it in O(1), so quoting a price is a single map lookup.
+ *
+ * The price is the slot's base price times the product of three factors, clamped
+ * to [minMultiplier, maxMultiplier] and rounded to half units:
+ *   fill      1 + 0.40 * utilization^2
+ *   forecast  1 + 0.15 * (expected crowd ratio - 0.5)
+ *   lead time 0.90 on the day when less than half full, 1.05 on the day otherwise,
+ *             0.95 a week or more ahead
+ *
+ * The table holds at most maxEntries entries. Once full, new slot dates are priced
+ * from the formula without being stored until expired dates are dropped.
+ */
+public class PriceTable {
+
+    private static final double NEUTRAL_FORECAST = 0.5;
+
+    private final double minMultiplier;
+    private final double maxMultiplier;
+    private final int maxEntries;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    public PriceTable(double minMultiplier, double maxMultiplier, int maxEntries) {
+        this.minMultiplier = minMultiplier;
+        this.maxMultiplier = maxMultiplier;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the stored price, or null if the entry has not been seeded or was
+     * seeded for a different base price or capacity and has to be seeded again.
+     */
+    public Double get(long slotId, LocalDate date, double basePrice, int capacity) {
+        Entry entry = entries.get(new Key(slotId, date));
+        return entry != null && entry.matches(basePrice, capacity) ? entry.price : null;
+    }
+
+    /** Stores a fresh entry, replacing one seeded for another base price or capacity. */
+    public double seed(long slotId, LocalDate date, double basePrice, int capacity, long reserved,
+                       Double forecastRatio, LocalDate today) {
+        Entry entry = new Entry(basePrice, capacity, reserved, forecastRatio != null ? forecastRatio : NEUTRAL_FORECAST);
+        entry.price = price(entry, date, today);
+        Key key = new Key(slotId, date);
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            return entry.price;
+        }
+        Entry stored = entries.compute(key,
+                (k, existing) -> existing != null && existing.matches(basePrice, capacity) ? existing : entry);
+        return stored.price;
+    }
+
+    /** Applies a reservation change to a seeded entry; unseeded entries are left alone. */
+    public void adjustReserved(long slotId, LocalDate date, int delta, LocalDate today) {
+        entries.computeIfPresent(new Key(slotId, date), (key, entry) -> {
+            entry.reserved = Math.max(0, entry.reserved + delta);
+            entry.price = price(entry, date, today);
+            return entry;
+        });
+    }
+
+    /** Overwrites the inputs of a seeded entry, e.g. after resyncing counts from the database. */
+    public void update(long slotId, LocalDate date, long reserved, Double forecastRatio, LocalDate today) {
+        entries.computeIfPresent(new Key(slotId, date), (key, entry) -> {
+            entry.reserved = reserved;
+            if (forecastRatio != null) {
+                entry.forecastRatio = forecastRatio;
+            }
+            entry.price = price(entry, date, today);
+            return entry;
+        });
+    }
+
+    /** Reprices every entry for the lead-time factor and drops dates before today. */
+    public void reprice(LocalDate today) {
+        entries.keySet().removeIf(key -> key.date().isBefore(today));
+        entries.forEach((key, entry) -> entries.computeIfPresent(key, (k, e) -> {
+            e.price = price(e, k.date(), today);
+            return e;
+        }));
+    }
+
+    public boolean contains(long slotId, LocalDate date) {
+        return entries.containsKey(new Key(slotId, date));
+    }
+
+    public Iterable<Key> keys() {
+        return entries.keySet();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public double price(double basePrice, int capacity, long reserved, double forecastRatio,
+                        LocalDate date, LocalDate today) {
+        double utilization = capacity > 0 ? Math.min(1.0, (double) reserved / capacity) : 1.0;
+        double fill = 1 + 0.40 * utilization * utilization;
+        double forecast = 1 + 0.15 * (Math.min(Math.max(forecastRatio, 0.0), 1.5) - NEUTRAL_FORECAST);
+
+        long daysAhead = ChronoUnit.DAYS.between(today, date);
+        double lead = 1.0;
+        if (daysAhead <= 0) {
+            lead = utilization < 0.5 ? 0.90 : 1.05;
+        } else if (daysAhead >= 7) {
+            lead = 0.95;
+        }
+
+        double multiplier = Math.min(maxMultiplier, Math.max(minMultiplier, fill * forecast * lead));
+        return Math.round(basePrice * multiplier * 2) / 2.0;
+    }
+
+    private double price(Entry entry, LocalDate date, LocalDate today) {
+        return price(entry.basePrice, entry.capacity, entry.reserved, entry.forecastRatio, date, today);
+    }
+
+    public record Key(long slotId, LocalDate date) {}
+
+    private static class Entry {
+        private final double basePrice;
+        private final int capacity;
+        private long reserved;
+        private double forecastRatio;
+        private volatile double price;
+
+        private Entry(double basePrice, int capacity, long reserved, double forecastRatio) {
+            this.basePrice = basePrice;
+            this.capacity = capacity;
+            this.reserved = reserved;
+            this.forecastRatio = forecastRatio;
+        }
+
+        private boolean matches(double basePrice, int capacity) {
+            return this.basePrice == basePrice && this.capacity == capacity;
+        }
+    }
+}
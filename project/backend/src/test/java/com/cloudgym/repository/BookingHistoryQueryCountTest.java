@@ -0,0 +1,87 @@
+package com.cloudgym.repository;
+
+import com.cloudgym.dto.BookingDTO;
+import com.cloudgym.entity.Booking;
+import com.cloudgym.entity.Gym;
+import com.cloudgym.entity.TimeSlot;
+import com.cloudgym.entity.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the booking history read path against N+1 queries: loading a page and
+ * mapping it to DTOs must take the same number of statements however many
+ * bookings, gyms and time slots the page spans.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BookingHistoryQueryCountTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private GymRepository gymRepository;
+
+    @Test
+    void historyStatementCountDoesNotGrowWithHistoryLength() {
+        User shortHistory = createUserWithBookings("short", 2);
+        User longHistory = createUserWithBookings("long", 40);
+        entityManager.flush();
+
+        long shortCount = countStatementsToLoadHistory(shortHistory.getId(), 2);
+        long longCount = countStatementsToLoadHistory(longHistory.getId(), 40);
+
+        assertThat(longCount).isEqualTo(shortCount);
+    }
+
+    private long countStatementsToLoadHistory(Long userId, int expectedBookings) {
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Same read path as UserBookingViewService.toEntries
+        List<Booking> bookings = bookingRepository.findHistoryByUserId(userId, PageRequest.of(0, 100));
+        Set<Long> gymIds = bookings.stream().map(booking -> booking.getGym().getId()).collect(Collectors.toSet());
+        gymRepository.fetchImages(gymIds);
+        List<BookingDTO> entries = bookings.stream().map(BookingDTO::historyEntry).toList();
+
+        assertThat(entries).hasSize(expectedBookings);
+        assertThat(entries).allSatisfy(entry -> assertThat(entry.getGym().getImages()).hasSize(1));
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Every booking gets its own gym and time slot, the worst case for lazy loading
+    private User createUserWithBookings(String name, int count) {
+        User user = new User(name, name + "@example.com", "password", "555-0100");
+        entityManager.persist(user);
+        for (int i = 0; i < count; i++) {
+            Gym gym = new Gym(name + " gym " + i, i + " Main Street", 12.9, 77.6, 50);
+            gym.setAmenities(List.of("Showers", "Lockers"));
+            gym.setImages(List.of("gym-" + i + ".jpg"));
+            gym.setOperatingHours(Map.of("monday", "06:00-22:00"));
+            entityManager.persist(gym);
+
+            TimeSlot timeSlot = new TimeSlot(gym, LocalTime.of(6, 0), LocalTime.of(7, 0), 20, 10.0);
+            entityManager.persist(timeSlot);
+
+            entityManager.persist(new Booking(user, gym, timeSlot, LocalDate.now().plusDays(i), 10.0));
+        }
+        return user;
+    }
+}
@@ -0,0 +1,121 @@
+package com.cloudgym.util;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Replays synthetic booking streams against a {@link PriceTable} and reports the
+ * cost of quotes and incremental updates. The baseline evaluates the formula on
+ * every quote from counts held in an array, so it excludes the reservation count
+ * query a per-request recompute needs in the service; the table avoids that query
+ * entirely after seeding. The replay also checks that the incrementally
+ * maintained prices end up equal to a from-scratch computation.
+ *
+ * Run with: java -cp target/classes:target/test-classes com.cloudgym.util.PriceTableReplayBenchmark [events] [seed]
+ */
+public class PriceTableReplayBenchmark {
+
+    private static final int SLOTS = 400;
+    private static final int DAYS = 30;
+    private static final int CAPACITY = 25;
+    private static final double BASE_PRICE = 20.0;
+
+    public static void main(String[] args) {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+        LocalDate today = LocalDate.now();
+
+        // Warm up both paths before measuring
+        replay(events / 10, seed + 1, today, false);
+        replay(events / 10, seed + 1, today, true);
+
+        long start = System.nanoTime();
+        Result incremental = replay(events, seed, today, false);
+        long incrementalNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        Result recomputed = replay(events, seed, today, true);
+        long recomputedNanos = System.nanoTime() - start;
+
+        System.out.printf("events: %d (%d quotes, %d bookings, %d releases)%n",
+                events, incremental.quotes, incremental.bookings, incremental.releases);
+        System.out.printf("incremental table: %8.1f ns/event%n", (double) incrementalNanos / events);
+        System.out.printf("formula per quote:  %7.1f ns/event (no count lookup)%n", (double) recomputedNanos / events);
+        System.out.printf("revenue: incremental %.1f, recomputed %.1f%n", incremental.revenue, recomputed.revenue);
+        System.out.printf("mismatched entries: %d of %d%n", incremental.mismatches, incremental.entries);
+    }
+
+    /**
+     * Books follow a skewed distribution over slots and favour the next few days,
+     * which is roughly how demand piles up on popular evening slots.
+     */
+    private static Result replay(int events, long seed, LocalDate today, boolean recomputeEachQuote) {
+        Random random = new Random(seed);
+        PriceTable table = new PriceTable(0.8, 1.5, Integer.MAX_VALUE);
+        long[][] reserved = new long[SLOTS][DAYS];
+        double[][] forecast = new double[SLOTS][DAYS];
+        for (int slot = 0; slot < SLOTS; slot++) {
+            for (int day = 0; day < DAYS; day++) {
+                forecast[slot][day] = random.nextDouble() * 1.2;
+            }
+        }
+
+        Result result = new Result();
+        for (int i = 0; i < events; i++) {
+            int slot = (int) Math.min(SLOTS - 1, Math.abs(random.nextGaussian()) * SLOTS / 3);
+            int day = (int) Math.min(DAYS - 1, random.nextExponential() * 4);
+            LocalDate date = today.plusDays(day);
+            double roll = random.nextDouble();
+
+            double price;
+            if (recomputeEachQuote) {
+                price = table.price(BASE_PRICE, CAPACITY, reserved[slot][day], forecast[slot][day], date, today);
+            } else {
+                Double cached = table.get(slot, date, BASE_PRICE, CAPACITY);
+                price = cached != null ? cached
+                        : table.seed(slot, date, BASE_PRICE, CAPACITY, reserved[slot][day], forecast[slot][day], today);
+            }
+
+            if (roll < 0.70) {
+                result.quotes++;
+            } else if (roll < 0.92) {
+                if (reserved[slot][day] < CAPACITY) {
+                    reserved[slot][day]++;
+                    result.bookings++;
+                    result.revenue += price;
+                    if (!recomputeEachQuote) {
+                        table.adjustReserved(slot, date, 1, today);
+                    }
+                }
+            } else if (reserved[slot][day] > 0) {
+                reserved[slot][day]--;
+                result.releases++;
+                if (!recomputeEachQuote) {
+                    table.adjustReserved(slot, date, -1, today);
+                }
+            }
+        }
+
+        if (!recomputeEachQuote) {
+            for (PriceTable.Key key : table.keys()) {
+                int slot = (int) key.slotId();
+                int day = (int) (key.date().toEpochDay() - today.toEpochDay());
+                double expected = table.price(BASE_PRICE, CAPACITY, reserved[slot][day], forecast[slot][day], key.date(), today);
+                if (table.get(slot, key.date(), BASE_PRICE, CAPACITY) != expected) {
+                    result.mismatches++;
+                }
+                result.entries++;
+            }
+        }
+        return result;
+    }
+
+    private static class Result {
+        private long quotes;
+        private long bookings;
+        private long releases;
+        private double revenue;
+        private long mismatches;
+        private long entries;
+    }
+}
@@ -25,6 +25,8 @@ interface Booking {
 export const BookingHistory: React.FC = () => {
   const [bookings, setBookings] = useState<Booking[]>([]);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState<string | null>(null);
   const [filter, setFilter] = useState<string>('all');
 
@@ -35,8 +37,9 @@ export const BookingHistory: React.FC = () => {
   const fetchBookings = async () => {
   try {
     setLoading(true);
-    const response = await apiService.getUserBookings();
-    setBookings(response as Booking[]); // <-- Cast to Booking[]
+    const page = await apiService.getUserBookings();
+    setBookings(page.items as Booking[]);
+    setNextCursor(page.nextCursor);
   } catch (err) {
     setError('Failed to load booking history');
     console.error('Error fetching bookings:', err);
@@ -45,6 +48,21 @@ export const BookingHistory: React.FC = () => {
   }
 };
 
+  // Older bookings come one page at a time, following the cursor of the last page
+  const loadMoreBookings = async () => {
+    if (!nextCursor) return;
+    try {
+      setLoadingMore(true);
+      const page = await apiService.getUserBookings(nextCursor);
+      setBookings(previous => [...previous, ...(page.items as Booking[])]);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      console.error('Error fetching older bookings:', err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const getStatusIcon = (status: string) => {
     switch (status.toLowerCase()) {
       case 'confirmed':
@@ -261,6 +279,19 @@ export const BookingHistory: React.FC = () => {
           ))}
         </div>
       )}
+
+      {nextCursor && (
+        <div className="text-center mt-6">
+          <button
+            onClick={loadMoreBookings}
+            disabled={loadingMore}
+            className="inline-flex items-center text-blue-600 hover:text-blue-700 font-medium disabled:opacity-50"
+          >
+            {loadingMore && <Loader2 className="h-4 w-4 mr-2 animate-spin" />}
+            Load older bookings
+          </button>
+        </div>
+      )}
     </div>
   );
 };
\ No newline at end of file
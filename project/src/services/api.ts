@@ -1,10 +1,37 @@
 const API_BASE_URL = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080';
 
+// History endpoints return one page and the cursor of the next one in this header
+const NEXT_CURSOR_HEADER = 'X-Next-Cursor';
+
+export interface CursorPage<T> {
+  items: T[];
+  nextCursor: string | null;
+}
+
 class ApiService {
   get<T>(arg0: string) {
       throw new Error('Method not implemented.');
   }
   private async request<T>(endpoint: string, options: RequestInit = {}): Promise<T> {
+    const response = await this.send(endpoint, options);
+    const data = await response.json();
+    console.log('Response data:', data);
+    console.log('=== API REQUEST DEBUG END ===');
+    return data;
+  }
+
+  private async requestPage<T>(endpoint: string, cursor?: string | null): Promise<CursorPage<T>> {
+    const separator = endpoint.includes('?') ? '&' : '?';
+    const url = cursor ? `${endpoint}${separator}cursor=${encodeURIComponent(cursor)}` : endpoint;
+    const response = await this.send(url);
+    const items = await response.json();
+    const nextCursor = response.headers.get(NEXT_CURSOR_HEADER);
+    console.log('Response data:', items, 'Next cursor:', nextCursor);
+    console.log('=== API REQUEST DEBUG END ===');
+    return { items, nextCursor };
+  }
+
+  private async send(endpoint: string, options: RequestInit = {}): Promise<Response> {
     console.log('=== API REQUEST DEBUG ===');
     console.log('Endpoint:', endpoint);
     console.log('Options:', { ...options, body: options.body ? '[BODY_PRESENT]' : undefined });
@@ -38,10 +65,7 @@ class ApiService {
       throw new Error(`API Error: ${response.status} ${response.statusText}`);
     }
     
-    const data = await response.json();
-    console.log('Response data:', data);
-    console.log('=== API REQUEST DEBUG END ===');
-    return data;
+    return response;
   }
 
   // Auth endpoints
@@ -140,9 +164,9 @@ class ApiService {
     });
   }
 
-  async getUserBookings() {
-  return this.request('/bookings/my-bookings');
-}
+  async getUserBookings(cursor?: string | null) {
+    return this.requestPage('/bookings/my-bookings', cursor);
+  }
 
   async cancelBooking(bookingId: string) {
     return this.request(`/bookings/${bookingId}/cancel`, {
@@ -194,6 +218,11 @@ async initiateSubscriptionPayment(planType: string) {
   });
 }
 
+// Payment: One page of the user's payments, newest first
+async getUserPayments(cursor?: string | null) {
+  return this.requestPage('/payments/my-payments', cursor);
+}
+
 // Payment: Callback after payment
 async paymentCallback(callbackData: any) {
   return this.request('/payments/callback', {